@@ -1,23 +1,87 @@
 package api.handler;
 
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
 import com.sun.net.httpserver.HttpExchange;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 public class BaseHttpHandler {
     public static final Charset DEFAULT_CHARSET = StandardCharsets.UTF_8;
+    private static final int STREAM_BUFFER_SIZE = 8 * 1024;
+    private static final int COMPRESSION_THRESHOLD = 1024; // ответы короче отправляются без сжатия и целиком
 
     protected void sendText(HttpExchange exchange, String text) throws IOException {
         byte[] response = text.getBytes(DEFAULT_CHARSET);
         exchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
-        exchange.sendResponseHeaders(200, response.length);
-        exchange.getResponseBody().write(response);
+
+        try (OutputStream os = openResponseBody(exchange, 200)) {
+            os.write(response);
+        }
+
+        exchange.close();
+    }
+
+    // Список пишется в тело ответа по элементу, поэтому память на запрос не зависит от размера списка
+    protected void sendJsonList(HttpExchange exchange, Gson gson, Iterable<?> items) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+
+        try (JsonWriter writer = gson.newJsonWriter(new BufferedWriter(
+                new OutputStreamWriter(openResponseBody(exchange, 200), DEFAULT_CHARSET), STREAM_BUFFER_SIZE))) {
+            writer.beginArray();
+
+            for (Object item : items) {
+                gson.toJson(item, item.getClass(), writer);
+            }
+
+            writer.endArray();
+        }
+
         exchange.close();
     }
 
+    /**
+     * Тело ответа, сжимаемое gzip, если клиент его принимает и ответ длиннее COMPRESSION_THRESHOLD.
+     * Заголовки ответа отправляются при закрытии потока или при превышении порога.
+     */
+    protected OutputStream openResponseBody(HttpExchange exchange, int responseCode) {
+        exchange.getResponseHeaders().add("Vary", "Accept-Encoding");
+        return new CompressingResponseStream(exchange, responseCode,
+                CompressingResponseStream.acceptsGzip(exchange), COMPRESSION_THRESHOLD);
+    }
+
+    /**
+     * Добавляет к ответу ETag и, если клиент прислал его же в If-None-Match, сразу отвечает 304 без тела.
+     * Возвращает true, если ответ уже отправлен. Теги слабые (W/), т.к. тело может быть сжато или нет.
+     */
+    protected boolean sendNotModified(HttpExchange exchange, String etag) throws IOException {
+        exchange.getResponseHeaders().set("ETag", etag);
+
+        for (String header : exchange.getRequestHeaders().getOrDefault("If-None-Match", List.of())) {
+            for (String candidate : header.split(",")) {
+                String tag = candidate.trim();
+
+                if (tag.equals("*") || stripWeak(tag).equals(stripWeak(etag))) {
+                    exchange.sendResponseHeaders(304, -1);
+                    exchange.close();
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
     protected void sendNotFound(HttpExchange exchange, String text) throws IOException {
         byte[] resp = text.getBytes(DEFAULT_CHARSET);
         exchange.getResponseHeaders().add("Content-Type", "text/html;charset=utf-8");
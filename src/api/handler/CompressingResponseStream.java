@@ -0,0 +1,107 @@
+package api.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Тело ответа, которое откладывает отправку заголовков до тех пор, пока не станет ясен размер ответа.
+ * Ответ не длиннее threshold байт отправляется целиком с Content-Length. Более длинный ответ уходит частями
+ * (chunked), а если клиент принимает gzip, то сжимается на лету: в памяти держится только буфер порога.
+ */
+class CompressingResponseStream extends OutputStream {
+    private static final long CHUNKED = 0; // длина 0 в sendResponseHeaders включает chunked transfer encoding
+
+    private final HttpExchange exchange;
+    private final int statusCode;
+    private final boolean gzipAccepted;
+    private final byte[] buffer;
+    private int buffered;
+    private OutputStream body; // null - заголовки еще не отправлены
+    private boolean closed;
+
+    CompressingResponseStream(HttpExchange exchange, int statusCode, boolean gzipAccepted, int threshold) {
+        this.exchange = exchange;
+        this.statusCode = statusCode;
+        this.gzipAccepted = gzipAccepted;
+        this.buffer = new byte[threshold];
+    }
+
+    // Клиент принимает gzip, если он указан в Accept-Encoding без q=0
+    static boolean acceptsGzip(HttpExchange exchange) {
+        for (String header : exchange.getRequestHeaders().getOrDefault("Accept-Encoding", List.of())) {
+            for (String coding : header.split(",")) {
+                String[] parts = coding.trim().split(";");
+
+                if (!parts[0].trim().equalsIgnoreCase("gzip")) continue;
+
+                boolean rejected = false;
+                for (int i = 1; i < parts.length; i++) {
+                    String parameter = parts[i].trim().replace(" ", "");
+                    if (parameter.matches("q=0(\\.0*)?")) rejected = true;
+                }
+
+                if (!rejected) return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (body == null) {
+            if (buffered + length <= buffer.length) {
+                System.arraycopy(bytes, offset, buffer, buffered, length);
+                buffered += length;
+                return;
+            }
+
+            startStreaming();
+        }
+
+        body.write(bytes, offset, length);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        // до отправки заголовков сбрасывать нечего, иначе размер ответа не будет известен
+        if (body != null) body.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+
+        if (body == null) {
+            exchange.sendResponseHeaders(statusCode, buffered == 0 ? -1 : buffered);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(buffer, 0, buffered);
+            }
+        } else {
+            body.close(); // для gzip дописывает завершающий блок
+        }
+    }
+
+    private void startStreaming() throws IOException {
+        if (gzipAccepted) {
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+
+        exchange.sendResponseHeaders(statusCode, CHUNKED);
+        body = gzipAccepted
+                ? new GZIPOutputStream(exchange.getResponseBody(), buffer.length)
+                : exchange.getResponseBody();
+        body.write(buffer, 0, buffered);
+        buffered = 0;
+    }
+}
@@ -10,11 +10,24 @@ import manager.TaskManager;
 import model.Epic;
 import model.Subtask;
 import model.Task;
+import model.TaskType;
+import model.TaskView;
+import model.ViewPage;
 
 import java.io.IOException;
+import java.net.URLDecoder;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
 
 public class TaskHttpHandler extends BaseHttpHandler implements HttpHandler {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final TaskManager taskManager;
     private final Gson gson;
 
@@ -33,41 +46,41 @@ public class TaskHttpHandler extends BaseHttpHandler implements HttpHandler {
             case GET_TASKS -> {
                 if (taskId.isPresent()) {
                     try {
-                        sendText(exchange, gson.toJson(taskManager.getTask(taskId.get())));
+                        sendText(exchange, gson.toJson(taskManager.getTaskView(taskId.get())));
                     } catch (NotFoundException e) {
                         sendNotFound(exchange, e.getMessage());
                     }
                 } else {
-                    sendText(exchange, gson.toJson(taskManager.getTasks()));
+                    sendViews(exchange, versionTag(TaskType.TASK), taskManager::getTaskViews, taskManager::getTaskViewPage);
                 }
             }
             case GET_EPICS -> {
                 if (taskId.isPresent()) {
                     try {
-                        sendText(exchange, gson.toJson(taskManager.getEpic(taskId.get())));
+                        sendText(exchange, gson.toJson(taskManager.getEpicView(taskId.get())));
                     } catch (NotFoundException e) {
                         sendNotFound(exchange, e.getMessage());
                     }
                 } else {
-                    sendText(exchange, gson.toJson(taskManager.getEpics()));
+                    sendViews(exchange, versionTag(TaskType.EPIC), taskManager::getEpicViews, taskManager::getEpicViewPage);
                 }
             }
             case GET_SUBTASKS -> {
                 if (taskId.isPresent()) {
                     try {
-                        sendText(exchange, gson.toJson(taskManager.getSubtask(taskId.get())));
+                        sendText(exchange, gson.toJson(taskManager.getSubtaskView(taskId.get())));
                     } catch (NotFoundException e) {
                         sendNotFound(exchange, e.getMessage());
                     }
                 } else {
-                    sendText(exchange, gson.toJson(taskManager.getSubtasks()));
+                    sendViews(exchange, versionTag(TaskType.SUBTASK), taskManager::getSubtaskViews, taskManager::getSubtaskViewPage);
                 }
             }
             case GET_EPIC_SUBTASKS -> {
                 if (taskId.isPresent()) {
                     try {
                         Epic epic = taskManager.getEpic(taskId.get());
-                        sendText(exchange, gson.toJson(taskManager.getAllSubtasksByEpic(epic)));
+                        sendJsonList(exchange, gson, taskManager.getAllSubtasksByEpic(epic));
                     } catch (NotFoundException e) {
                         sendNotFound(exchange, e.getMessage());
                     }
@@ -75,8 +88,9 @@ public class TaskHttpHandler extends BaseHttpHandler implements HttpHandler {
                     writeResponse(exchange, "Некорректный запрос", 400);
                 }
             }
-            case GET_HISTORY -> sendText(exchange, gson.toJson(taskManager.getHistory()));
-            case GET_PRIORITIZED -> sendText(exchange, gson.toJson(taskManager.getPrioritizedTasks()));
+            // история меняется при каждом просмотре, поэтому отдается без ETag
+            case GET_HISTORY -> sendViews(exchange, null, taskManager::getHistoryViews, taskManager::getHistoryViewPage);
+            case GET_PRIORITIZED -> sendViews(exchange, prioritizedVersionTag(), taskManager::getPrioritizedTaskViews, taskManager::getPrioritizedTaskViewPage);
             case POST_TASK -> {
                 if (taskId.isPresent()) {
                     try {
@@ -217,6 +231,56 @@ public class TaskHttpHandler extends BaseHttpHandler implements HttpHandler {
         }
     }
 
+    /**
+     * Без параметров limit и cursor отдает весь список. С ними - одну страницу (по умолчанию DEFAULT_PAGE_SIZE элементов,
+     * не больше MAX_PAGE_SIZE), курсор следующей страницы передается в заголовке X-Next-Cursor.
+     * Если etag совпал с If-None-Match, список не читается и не сериализуется (null - ETag не используется).
+     */
+    private void sendViews(HttpExchange exchange, String etag, Supplier<List<TaskView>> allViews,
+                           BiFunction<String, Integer, ViewPage> pageReader) throws IOException {
+        if (etag != null && sendNotModified(exchange, etag)) return;
+
+        Map<String, String> query = getQuery(exchange);
+
+        if (!query.containsKey("limit") && !query.containsKey("cursor")) {
+            sendJsonList(exchange, gson, allViews.get());
+            return;
+        }
+
+        int limit;
+        ViewPage page;
+
+        try {
+            limit = query.containsKey("limit") ? Integer.parseInt(query.get("limit")) : DEFAULT_PAGE_SIZE;
+        } catch (NumberFormatException e) {
+            writeResponse(exchange, "Некорректный параметр limit", 400);
+            return;
+        }
+
+        try {
+            page = pageReader.apply(query.get("cursor"), Math.min(limit, MAX_PAGE_SIZE));
+        } catch (IllegalArgumentException e) {
+            writeResponse(exchange, e.getMessage(), 400); // некорректный курсор или размер страницы
+            return;
+        }
+
+        if (page.nextCursor() != null) {
+            exchange.getResponseHeaders().add(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+
+        sendJsonList(exchange, gson, page.items());
+    }
+
+    // Версия читается до списка, поэтому тег никогда не новее отданных данных
+    private String versionTag(TaskType type) {
+        return "W/\"" + type.name().toLowerCase() + "-" + taskManager.getVersion(type) + "\"";
+    }
+
+    // Список приоритетов зависит от задач и подзадач
+    private String prioritizedVersionTag() {
+        return "W/\"prioritized-" + taskManager.getVersion(TaskType.TASK) + "-" + taskManager.getVersion(TaskType.SUBTASK) + "\"";
+    }
+
     enum Endpoint {
         GET_TASKS,
         GET_SUBTASKS,
@@ -242,6 +306,21 @@ public class TaskHttpHandler extends BaseHttpHandler implements HttpHandler {
         }
     }
 
+    protected Map<String, String> getQuery(HttpExchange exchange) {
+        Map<String, String> query = new HashMap<>();
+        String rawQuery = exchange.getRequestURI().getRawQuery();
+
+        if (rawQuery == null || rawQuery.isEmpty()) return query;
+
+        for (String parameter : rawQuery.split("&")) {
+            String[] pair = parameter.split("=", 2);
+            query.put(URLDecoder.decode(pair[0], DEFAULT_CHARSET),
+                    pair.length > 1 ? URLDecoder.decode(pair[1], DEFAULT_CHARSET) : "");
+        }
+
+        return query;
+    }
+
     protected Endpoint getEndpoint(HttpExchange exchange) {
         String requestPath = exchange.getRequestURI().getPath();
         String requestMethod = exchange.getRequestMethod();
@@ -0,0 +1,7 @@
+package api.server;
+
+public enum ExecutorKind {
+    DISPATCHER,     // запросы обрабатываются потоком-диспетчером HttpServer по одному
+    FIXED_POOL,     // пул из ServerSettings.threads() платформенных потоков
+    VIRTUAL_THREADS // отдельный виртуальный поток на каждый запрос
+}
@@ -13,18 +13,31 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class HttpTaskServer {
-    private static final Integer PORT = 8080;
-    private static final Integer DEFAULT_DELAY = 1;
-
     private final HttpServer server;
     private final TaskManager taskManager;
     private final Gson gson;
+    private final ServerSettings settings;
+    private final ExecutorService executor; // null - запросы обрабатывает поток-диспетчер
 
     public HttpTaskServer(TaskManager taskManager) throws IOException {
+        this(taskManager, ServerSettings.defaults());
+    }
+
+    public HttpTaskServer(TaskManager taskManager, ServerSettings settings) throws IOException {
         this.taskManager = taskManager;
-        server = HttpServer.create(new InetSocketAddress(PORT), 0);
+        this.settings = settings;
+        server = HttpServer.create(new InetSocketAddress(settings.port()), settings.backlog());
+
+        executor = switch (settings.executorKind()) {
+            case DISPATCHER -> null;
+            case FIXED_POOL -> Executors.newFixedThreadPool(settings.threads());
+            case VIRTUAL_THREADS -> Executors.newVirtualThreadPerTaskExecutor();
+        };
+        server.setExecutor(executor);
 
         this.gson = new GsonBuilder()
                 .registerTypeAdapter(Duration.class, new DurationAdapter())
@@ -45,9 +58,15 @@ public class HttpTaskServer {
 
     }
 
+    // Необязательный аргумент - порт
     public static void main(String[] args) throws IOException {
-        TaskManager manager = Managers.getDefault();
-        HttpTaskServer server = new HttpTaskServer(manager);
+        ServerSettings settings = ServerSettings.defaults().withVirtualThreads();
+
+        if (args.length > 0) {
+            settings = settings.withPort(Integer.parseInt(args[0]));
+        }
+
+        HttpTaskServer server = new HttpTaskServer(Managers.getConcurrentTaskManager(), settings);
         server.start();
     }
 
@@ -56,7 +75,16 @@ public class HttpTaskServer {
     }
 
     public void stop() {
-        server.stop(DEFAULT_DELAY);
+        server.stop((int) settings.stopDelay().toSeconds());
+
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    // Фактический порт; отличается от настроек, если был запрошен порт 0
+    public int getPort() {
+        return server.getAddress().getPort();
     }
 
     public Gson getGson() {
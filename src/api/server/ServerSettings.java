@@ -0,0 +1,53 @@
+package api.server;
+
+import java.time.Duration;
+
+/**
+ * Параметры запуска HttpTaskServer. backlog - очередь входящих соединений (0 - значение системы по умолчанию),
+ * threads используется только для FIXED_POOL, stopDelay - сколько stop() ждет завершения текущих запросов.
+ * Исполнители, отличные от DISPATCHER, обрабатывают запросы параллельно, поэтому менеджер задач должен быть
+ * потокобезопасным (например, Managers.getConcurrentTaskManager()).
+ */
+public record ServerSettings(int port, int backlog, ExecutorKind executorKind, int threads, Duration stopDelay) {
+    private static final int DEFAULT_PORT = 8080;
+    private static final Duration DEFAULT_STOP_DELAY = Duration.ofSeconds(1);
+
+    public ServerSettings {
+        if (port < 0 || port > 0xFFFF) {
+            throw new IllegalArgumentException("Некорректный порт: " + port);
+        }
+        if (backlog < 0) {
+            throw new IllegalArgumentException("Очередь соединений не может быть отрицательной");
+        }
+        if (executorKind == null || stopDelay == null || stopDelay.isNegative()) {
+            throw new IllegalArgumentException("Исполнитель и задержка остановки должны быть заданы");
+        }
+        if (executorKind == ExecutorKind.FIXED_POOL && threads <= 0) {
+            throw new IllegalArgumentException("Размер пула потоков должен быть положительным");
+        }
+    }
+
+    public static ServerSettings defaults() {
+        return new ServerSettings(DEFAULT_PORT, 0, ExecutorKind.DISPATCHER, 0, DEFAULT_STOP_DELAY);
+    }
+
+    public ServerSettings withPort(int port) {
+        return new ServerSettings(port, backlog, executorKind, threads, stopDelay);
+    }
+
+    public ServerSettings withBacklog(int backlog) {
+        return new ServerSettings(port, backlog, executorKind, threads, stopDelay);
+    }
+
+    public ServerSettings withVirtualThreads() {
+        return new ServerSettings(port, backlog, ExecutorKind.VIRTUAL_THREADS, 0, stopDelay);
+    }
+
+    public ServerSettings withFixedPool(int threads) {
+        return new ServerSettings(port, backlog, ExecutorKind.FIXED_POOL, threads, stopDelay);
+    }
+
+    public ServerSettings withStopDelay(Duration stopDelay) {
+        return new ServerSettings(port, backlog, executorKind, threads, stopDelay);
+    }
+}
@@ -0,0 +1,45 @@
+package manager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AtomicIdAllocator implements IdAllocator {
+    private final AtomicInteger lastId;
+
+    public AtomicIdAllocator() {
+        this(0);
+    }
+
+    public AtomicIdAllocator(int lastId) {
+        this.lastId = new AtomicInteger(lastId);
+    }
+
+    @Override
+    public int nextId() {
+        return reserve(1);
+    }
+
+    @Override
+    public int reserve(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Количество резервируемых id должно быть положительным");
+        }
+
+        int first = lastId.getAndAdd(count) + 1;
+
+        if (first <= 0 || first > Integer.MAX_VALUE - count + 1) {
+            throw new IllegalStateException("Свободные id закончились");
+        }
+
+        return first;
+    }
+
+    @Override
+    public void register(int id) {
+        lastId.accumulateAndGet(id, Math::max);
+    }
+
+    @Override
+    public int getLastId() {
+        return lastId.get();
+    }
+}
@@ -0,0 +1,127 @@
+package manager;
+
+import exception.ManagerSaveException;
+import model.TaskStatus;
+import model.TaskType;
+import model.TaskView;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Читает снимок, записанный BinarySnapshotWriter. Записи читаются последовательно по одной,
+ * поэтому весь файл в память не загружается.
+ */
+class BinarySnapshotReader implements Closeable {
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private final DataInputStream in;
+    private int lastId;
+    private int remaining;
+
+    BinarySnapshotReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in));
+        readHeader();
+    }
+
+    static boolean isBinarySnapshot(File file) {
+        byte[] magic = new byte[BinarySnapshotWriter.MAGIC.length];
+
+        try (InputStream in = CompressedFiles.openInput(file.toPath())) {
+            return in.readNBytes(magic, 0, magic.length) == magic.length && Arrays.equals(magic, BinarySnapshotWriter.MAGIC);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    int getLastId() {
+        return lastId;
+    }
+
+    boolean hasNext() {
+        return remaining > 0;
+    }
+
+    TaskView next() throws IOException {
+        if (remaining-- <= 0) {
+            throw new EOFException("В снимке больше нет записей");
+        }
+
+        TaskType type = TYPES[in.readUnsignedByte()];
+        TaskStatus status = STATUSES[in.readUnsignedByte()];
+        int id = (int) readVarLong();
+        String title = readString();
+        String description = readString();
+
+        long startMinutes = readVarLong();
+        LocalDateTime startTime = startMinutes == 0 ? null
+                : LocalDateTime.ofInstant(Instant.ofEpochMilli(toMillis(startMinutes - 1, readVarLong())), ZoneOffset.UTC);
+        Duration duration = Duration.ofMillis(toMillis(readVarLong(), readVarLong()));
+
+        long epicId = readVarLong();
+
+        return new TaskView(id, title, description, status, type, duration, startTime,
+                epicId == 0 ? null : (int) (epicId - 1), null, null);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void readHeader() throws IOException {
+        byte[] magic = new byte[BinarySnapshotWriter.MAGIC.length];
+        in.readFully(magic);
+
+        if (!Arrays.equals(magic, BinarySnapshotWriter.MAGIC)) {
+            throw new ManagerSaveException("Файл не является двоичным снимком задач");
+        }
+
+        int version = in.readUnsignedByte();
+
+        if (version != BinarySnapshotWriter.VERSION) {
+            throw new ManagerSaveException("Неподдерживаемая версия снимка: " + version);
+        }
+
+        lastId = (int) readVarLong();
+        remaining = (int) readVarLong();
+    }
+
+    private static long toMillis(long minutes, long millis) {
+        return minutes * BinarySnapshotWriter.MILLIS_PER_MINUTE + millis;
+    }
+
+    private String readString() throws IOException {
+        int length = (int) readVarLong();
+
+        if (length == 0) return null;
+
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private long readVarLong() throws IOException {
+        long zigzag = 0;
+        int shift = 0;
+        int b;
+
+        do {
+            if (shift > 63) {
+                throw new ManagerSaveException("Поврежденное число в снимке");
+            }
+            b = in.readUnsignedByte();
+            zigzag |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+}
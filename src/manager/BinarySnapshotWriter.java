@@ -0,0 +1,88 @@
+package manager;
+
+import model.TaskView;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+
+/**
+ * Пишет снимок задач в двоичном формате:
+ * <pre>
+ * заголовок: "JKSN", версия (1 байт), lastId, количество записей
+ * запись:    тип и статус (ordinal, по 1 байту), id, название, описание, начало, продолжительность, epicId
+ * </pre>
+ * Целые числа - varint (LEB128) в zigzag-кодировке, строки - длина в байтах UTF-8 плюс 1 (0 - null) и сами байты.
+ * Время хранится как минуты от эпохи UTC и остаток в миллисекундах: для расписаний, кратных минуте,
+ * остаток занимает один байт. Отсутствующие начало и epicId кодируются нулем, значения сдвигаются на 1.
+ */
+class BinarySnapshotWriter implements Closeable {
+    static final byte[] MAGIC = {'J', 'K', 'S', 'N'};
+    static final int VERSION = 1;
+    static final long MILLIS_PER_MINUTE = 60_000;
+
+    private final DataOutputStream out;
+
+    BinarySnapshotWriter(OutputStream out) {
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+    }
+
+    void writeHeader(int lastId, int count) throws IOException {
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        writeVarLong(lastId);
+        writeVarLong(count);
+    }
+
+    void write(TaskView task) throws IOException {
+        out.writeByte(task.type().ordinal());
+        out.writeByte(task.status().ordinal());
+        writeVarLong(task.id());
+        writeString(task.title());
+        writeString(task.description());
+
+        if (task.startTime() == null) {
+            writeVarLong(0);
+        } else {
+            long millis = task.startTime().toInstant(ZoneOffset.UTC).toEpochMilli();
+            writeVarLong(Math.floorDiv(millis, MILLIS_PER_MINUTE) + 1);
+            writeVarLong(Math.floorMod(millis, MILLIS_PER_MINUTE));
+        }
+
+        long durationMillis = task.duration() == null ? 0 : task.duration().toMillis();
+        writeVarLong(Math.floorDiv(durationMillis, MILLIS_PER_MINUTE));
+        writeVarLong(Math.floorMod(durationMillis, MILLIS_PER_MINUTE));
+        writeVarLong(task.epicId() == null ? 0 : task.epicId() + 1L);
+    }
+
+    void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            writeVarLong(0);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length + 1L);
+        out.write(bytes);
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        long zigzag = (value << 1) ^ (value >> 63);
+
+        while ((zigzag & ~0x7FL) != 0) {
+            out.writeByte((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+
+        out.writeByte((int) zigzag);
+    }
+}
@@ -0,0 +1,40 @@
+package manager;
+
+import java.time.Duration;
+
+/**
+ * Пороги, при достижении любого из которых журнал FileBackedTaskManager сворачивается в новый снимок.
+ * Нулевое значение (или null для интервала) отключает соответствующий порог.
+ */
+public record CompactionPolicy(long maxJournalBytes, int maxJournalRecords, Duration maxInterval) {
+    private static final long DEFAULT_MAX_JOURNAL_BYTES = 4L * 1024 * 1024;
+    private static final int DEFAULT_MAX_JOURNAL_RECORDS = 10_000;
+    private static final Duration DEFAULT_MAX_INTERVAL = Duration.ofMinutes(10);
+
+    public CompactionPolicy {
+        if (maxJournalBytes < 0 || maxJournalRecords < 0 || (maxInterval != null && maxInterval.isNegative())) {
+            throw new IllegalArgumentException("Пороги сжатия журнала не могут быть отрицательными");
+        }
+    }
+
+    public static CompactionPolicy defaults() {
+        return new CompactionPolicy(DEFAULT_MAX_JOURNAL_BYTES, DEFAULT_MAX_JOURNAL_RECORDS, DEFAULT_MAX_INTERVAL);
+    }
+
+    // Журнал растет без ограничений и сворачивается только при загрузке или явном вызове save()
+    public static CompactionPolicy never() {
+        return new CompactionPolicy(0, 0, null);
+    }
+
+    public boolean isDue(long journalBytes, int journalRecords, Duration sinceLastSnapshot) {
+        if (journalRecords == 0) return false;
+
+        return (maxJournalBytes > 0 && journalBytes >= maxJournalBytes)
+                || (maxJournalRecords > 0 && journalRecords >= maxJournalRecords)
+                || (hasMaxInterval() && sinceLastSnapshot.compareTo(maxInterval) >= 0);
+    }
+
+    public boolean hasMaxInterval() {
+        return maxInterval != null && !maxInterval.isZero();
+    }
+}
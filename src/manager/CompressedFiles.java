@@ -0,0 +1,116 @@
+package manager;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Сжатие файлов хранилища в формате GZIP. Сжатый файл распознается по сигнатуре, поэтому читающий код
+ * не зависит от настроек, с которыми файл был записан. Чтение и запись потоковые: файл целиком
+ * в памяти не держится.
+ */
+class CompressedFiles {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int GZIP_MAGIC_FIRST = 0x1f;
+    private static final int GZIP_MAGIC_SECOND = 0x8b;
+
+    private CompressedFiles() {
+    }
+
+    static boolean isCompressed(Path path) {
+        try (InputStream in = Files.newInputStream(path)) {
+            return in.read() == GZIP_MAGIC_FIRST && in.read() == GZIP_MAGIC_SECOND;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // Открывает файл для чтения, распаковывая его на лету, если он сжат
+    static InputStream openInput(Path path) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE);
+
+        in.mark(2);
+        boolean compressed = in.read() == GZIP_MAGIC_FIRST && in.read() == GZIP_MAGIC_SECOND;
+        in.reset();
+
+        return compressed ? new GZIPInputStream(in, BUFFER_SIZE) : in;
+    }
+
+    // Поток сжатия поверх out; перед синхронизацией out с диском нужно вызвать finish()
+    static GzipMember compress(OutputStream out) throws IOException {
+        return new GzipMember(out);
+    }
+
+    /**
+     * GZIP-элемент поверх чужого потока. finish() дописывает элемент и сразу освобождает native-память Deflater,
+     * не дожидаясь сборки мусора. close() только освобождает Deflater и не закрывает out: поток файла
+     * синхронизирует с диском и закрывает его владелец, поэтому элемент удобно открывать в try-with-resources.
+     */
+    static final class GzipMember extends GZIPOutputStream {
+        private boolean ended;
+
+        private GzipMember(OutputStream out) throws IOException {
+            super(out, BUFFER_SIZE);
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (ended) return;
+
+            try {
+                super.finish();
+            } finally {
+                end();
+            }
+        }
+
+        // Без finish() элемент остается недописанным; так закрывается поток после ошибки записи
+        @Override
+        public void close() {
+            end();
+        }
+
+        private void end() {
+            ended = true;
+            def.end();
+        }
+    }
+
+    /**
+     * Дописывает содержимое source в конец target, сохраняя его кодировку: к сжатому файлу добавляется
+     * новый GZIP-элемент (GZIPInputStream читает такие элементы подряд), к несжатому - исходные байты.
+     */
+    static void append(Path target, Path source) throws IOException {
+        boolean compressed = isCompressed(target);
+
+        try (OutputStream out = Files.newOutputStream(target, StandardOpenOption.APPEND)) {
+            if (!compressed) {
+                Files.copy(source, out);
+                return;
+            }
+
+            try (GzipMember member = compress(out)) {
+                Files.copy(source, member);
+                member.finish();
+            }
+        }
+    }
+
+    // Заменяет файл его сжатой копией
+    static void compressInPlace(Path path) throws IOException {
+        if (isCompressed(path)) return;
+
+        Path temp = Path.of(path + ".gz.tmp");
+
+        try (OutputStream out = Files.newOutputStream(temp); GzipMember member = compress(out)) {
+            Files.copy(path, member);
+            member.finish();
+        }
+
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,59 @@
+package manager;
+
+import model.Task;
+import model.TaskView;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * История просмотров для многопоточного доступа. Вместо связного списка каждой записи присваивается
+ * метка времени обращения из общего счетчика, а порядок восстанавливается сортировкой при чтении истории.
+ * Повторный просмотр просто заменяет запись с новой меткой, поэтому add и remove не требуют общей блокировки.
+ */
+public class ConcurrentHistoryManager implements HistoryManager {
+    private final ConcurrentMap<Integer, Entry> history = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+
+    @Override
+    public void add(Task task) {
+        if (task == null) return;
+
+        add(TaskView.of(task));
+    }
+
+    @Override
+    public void add(TaskView view) {
+        if (view == null) return;
+
+        // метка берется до вставки, поэтому потоки могут вставить записи не в порядке меток - остается более поздняя
+        history.merge(view.id(), new Entry(clock.incrementAndGet(), view),
+                (current, added) -> added.stamp() > current.stamp() ? added : current);
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return getHistoryViews().stream()
+                .map(TaskView::toTask)
+                .toList();
+    }
+
+    @Override
+    public List<TaskView> getHistoryViews() {
+        return history.values().stream()
+                .sorted(Comparator.comparingLong(Entry::stamp))
+                .map(Entry::view)
+                .toList();
+    }
+
+    @Override
+    public void remove(int id) {
+        history.remove(id);
+    }
+
+    private record Entry(long stamp, TaskView view) {
+    }
+}
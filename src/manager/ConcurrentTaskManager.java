@@ -0,0 +1,268 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+import model.TaskView;
+import model.ViewPage;
+
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Потокобезопасная обертка над TaskManager. Чтение списков выполняется параллельно под общей блокировкой,
+ * изменения (в том числе пересчет полей эпиков и списка приоритетов) - под эксклюзивной.
+ * Получение задачи по id пополняет историю просмотров, поэтому выполняется под эксклюзивной блокировкой,
+ * если только менеджер истории сам не является потокобезопасным (например, ConcurrentHistoryManager).
+ */
+public class ConcurrentTaskManager implements TaskManager {
+    private final TaskManager delegate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final boolean threadSafeHistory;
+    private final FileBackedTaskManager journaled; // null - изменения не ждут записи журнала
+
+    public ConcurrentTaskManager(TaskManager delegate) {
+        this(delegate, false);
+    }
+
+    public ConcurrentTaskManager(TaskManager delegate, boolean threadSafeHistory) {
+        this.delegate = delegate;
+        this.threadSafeHistory = threadSafeHistory;
+        this.journaled = delegate instanceof FileBackedTaskManager fileBacked ? fileBacked : null;
+
+        if (journaled != null) {
+            journaled.deferDurability(); // в режиме SYNC сброс журнала ждем после освобождения блокировки
+        }
+    }
+
+    @Override
+    public List<Epic> getEpics() {
+        return read(delegate::getEpics);
+    }
+
+    @Override
+    public List<Task> getTasks() {
+        return read(delegate::getTasks);
+    }
+
+    @Override
+    public List<Subtask> getSubtasks() {
+        return read(delegate::getSubtasks);
+    }
+
+    @Override
+    public int addEpic(Epic epic) {
+        return write(() -> delegate.addEpic(epic));
+    }
+
+    @Override
+    public int addTask(Task task) {
+        return write(() -> delegate.addTask(task));
+    }
+
+    @Override
+    public int addSubtask(Subtask subtask) {
+        return write(() -> delegate.addSubtask(subtask));
+    }
+
+    @Override
+    public Epic removeEpic(int id) {
+        return write(() -> delegate.removeEpic(id));
+    }
+
+    @Override
+    public Task removeTask(int id) {
+        return write(() -> delegate.removeTask(id));
+    }
+
+    @Override
+    public Subtask removeSubtask(int id) {
+        return write(() -> delegate.removeSubtask(id));
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasksByEpic(Epic epic) {
+        return read(() -> delegate.getAllSubtasksByEpic(epic));
+    }
+
+    @Override
+    public void clearEpics() {
+        write(delegate::clearEpics);
+    }
+
+    @Override
+    public void clearTasks() {
+        write(delegate::clearTasks);
+    }
+
+    @Override
+    public void clearSubtasks() {
+        write(delegate::clearSubtasks);
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        write(() -> delegate.updateEpic(epic));
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        write(() -> delegate.updateTask(task));
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        write(() -> delegate.updateSubtask(subtask));
+    }
+
+    @Override
+    public Task getTask(int id) {
+        return view(() -> delegate.getTask(id));
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        return view(() -> delegate.getEpic(id));
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        return view(() -> delegate.getSubtask(id));
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return read(delegate::getHistory);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return read(delegate::getPrioritizedTasks);
+    }
+
+    @Override
+    public TaskView getTaskView(int id) {
+        return view(() -> delegate.getTaskView(id));
+    }
+
+    @Override
+    public TaskView getEpicView(int id) {
+        return view(() -> delegate.getEpicView(id));
+    }
+
+    @Override
+    public TaskView getSubtaskView(int id) {
+        return view(() -> delegate.getSubtaskView(id));
+    }
+
+    @Override
+    public List<TaskView> getTaskViews() {
+        return read(delegate::getTaskViews);
+    }
+
+    @Override
+    public List<TaskView> getEpicViews() {
+        return read(delegate::getEpicViews);
+    }
+
+    @Override
+    public List<TaskView> getSubtaskViews() {
+        return read(delegate::getSubtaskViews);
+    }
+
+    @Override
+    public List<TaskView> getPrioritizedTaskViews() {
+        return read(delegate::getPrioritizedTaskViews);
+    }
+
+    @Override
+    public List<TaskView> getHistoryViews() {
+        return read(delegate::getHistoryViews);
+    }
+
+    @Override
+    public ViewPage getTaskViewPage(String cursor, int limit) {
+        return read(() -> delegate.getTaskViewPage(cursor, limit));
+    }
+
+    @Override
+    public ViewPage getEpicViewPage(String cursor, int limit) {
+        return read(() -> delegate.getEpicViewPage(cursor, limit));
+    }
+
+    @Override
+    public ViewPage getSubtaskViewPage(String cursor, int limit) {
+        return read(() -> delegate.getSubtaskViewPage(cursor, limit));
+    }
+
+    @Override
+    public ViewPage getPrioritizedTaskViewPage(String cursor, int limit) {
+        return read(() -> delegate.getPrioritizedTaskViewPage(cursor, limit));
+    }
+
+    @Override
+    public ViewPage getHistoryViewPage(String cursor, int limit) {
+        return read(() -> delegate.getHistoryViewPage(cursor, limit));
+    }
+
+    // Счетчики изменений атомарны, поэтому читаются без блокировки
+    @Override
+    public long getVersion() {
+        return delegate.getVersion();
+    }
+
+    @Override
+    public long getVersion(TaskType type) {
+        return delegate.getVersion(type);
+    }
+
+    private <R> R read(Supplier<R> action) {
+        return locked(lock.readLock(), action);
+    }
+
+    // Просмотры не пишутся в журнал, поэтому не ждут его сброса на диск
+    private <R> R view(Supplier<R> action) {
+        return locked(threadSafeHistory ? lock.readLock() : lock.writeLock(), action);
+    }
+
+    private static <R> R locked(Lock held, Supplier<R> action) {
+        held.lock();
+        try {
+            return action.get();
+        } finally {
+            held.unlock();
+        }
+    }
+
+    private <R> R write(Supplier<R> action) {
+        return awaitingJournal(lock.writeLock(), action);
+    }
+
+    private void write(Runnable action) {
+        write(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    // Сброс журнала ожидается после освобождения блокировки, чтобы записи других потоков успели попасть в тот же пакет
+    private <R> R awaitingJournal(Lock held, Supplier<R> action) {
+        R result;
+        long sequence;
+
+        held.lock();
+        try {
+            result = action.get();
+            sequence = journaled == null ? 0 : journaled.journalSequence();
+        } finally {
+            held.unlock();
+        }
+
+        if (journaled != null) journaled.awaitDurable(sequence);
+        return result;
+    }
+}
@@ -0,0 +1,191 @@
+package manager;
+
+import exception.ManagerSaveException;
+import util.IntHashMap;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Описания задач, вынесенные из памяти во временный файл &lt;файл&gt;.*.descriptions рядом со снимком. Файл дописывается
+ * записями [id][длина][UTF-8 байты], в памяти остаются только их положения и несколько последних прочитанных
+ * описаний (LRU). Файл - рабочая область одного менеджера, а не часть снимка: описания заново приходят из снимка
+ * и журнала при загрузке, поэтому close() удаляет файл (deleteOnExit остается на случай, если close() не вызван).
+ * Когда устаревшие записи занимают больше половины файла, живые записи переписываются в новый файл.
+ */
+class DescriptionStore implements Closeable {
+    private static final int RECORD_HEADER_BYTES = Integer.BYTES * 2;
+    private static final long MIN_COMPACTION_BYTES = 1024 * 1024;
+
+    private final Path snapshot;
+    private Path path;
+    private final Map<Integer, String> cache;
+    private final IntHashMap<Location> locations = new IntHashMap<>();
+    private FileChannel channel;
+    private long fileBytes;
+    private long liveBytes;
+
+    private record Location(long offset, int length) {
+    }
+
+    DescriptionStore(Path snapshot, int cacheSize) {
+        this.snapshot = snapshot.toAbsolutePath();
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    synchronized void put(int id, String description) {
+        remove(id);
+
+        if (description == null) return;
+
+        byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + bytes.length)
+                .putInt(id)
+                .putInt(bytes.length)
+                .put(bytes)
+                .flip();
+
+        try {
+            writeFully(channel(), record, fileBytes);
+            locations.put(id, new Location(fileBytes, record.capacity()));
+            fileBytes += record.capacity();
+            liveBytes += record.capacity();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка записи описания задачи");
+        }
+
+        compactIfNeeded();
+    }
+
+    // Описание для выдачи одной задачи: проходит через кэш
+    synchronized String get(int id) {
+        String description = cache.get(id);
+
+        if (description == null) {
+            description = read(id);
+            if (description != null) cache.put(id, description);
+        }
+
+        return description;
+    }
+
+    // Описание для записи снимка: не добавляется в кэш, чтобы полный проход не вытеснял из него горячие задачи
+    synchronized String read(int id) {
+        String cached = cache.get(id);
+        if (cached != null) return cached;
+
+        Location location = locations.get(id);
+        if (location == null) return null;
+
+        try {
+            ByteBuffer bytes = ByteBuffer.allocate(location.length() - RECORD_HEADER_BYTES);
+            readFully(channel(), bytes, location.offset() + RECORD_HEADER_BYTES);
+            return new String(bytes.array(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка чтения описания задачи");
+        }
+    }
+
+    synchronized void remove(int id) {
+        Location location = locations.remove(id);
+        cache.remove(id);
+
+        if (location != null) {
+            liveBytes -= location.length();
+        }
+    }
+
+    synchronized int size() {
+        return locations.size();
+    }
+
+    synchronized long fileBytes() {
+        return fileBytes;
+    }
+
+    // Закрывает и удаляет файл; хранилище после этого пусто, следующий put создаст новый файл
+    @Override
+    public synchronized void close() throws IOException {
+        locations.clear();
+        cache.clear();
+        fileBytes = 0;
+        liveBytes = 0;
+
+        if (channel == null) return;
+
+        try {
+            channel.close();
+        } finally {
+            channel = null;
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            path = Files.createTempFile(snapshot.getParent(), snapshot.getFileName() + ".", ".descriptions");
+            path.toFile().deleteOnExit();
+            channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        return channel;
+    }
+
+    private void compactIfNeeded() {
+        if (fileBytes < MIN_COMPACTION_BYTES || liveBytes * 2 > fileBytes) return;
+
+        Path temp = Path.of(path + ".tmp");
+
+        try (FileChannel target = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = 0;
+
+            for (int id : locations.keys()) {
+                Location location = locations.get(id);
+                ByteBuffer record = ByteBuffer.allocate(location.length());
+
+                readFully(channel, record, location.offset());
+                writeFully(target, record.flip(), position);
+
+                locations.put(id, new Location(position, location.length()));
+                position += location.length();
+            }
+
+            channel.close();
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            fileBytes = position;
+            liveBytes = position;
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка сжатия файла описаний");
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Неожиданный конец файла описаний");
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
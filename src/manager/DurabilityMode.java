@@ -0,0 +1,7 @@
+package manager;
+
+public enum DurabilityMode {
+    NONE,  // запись в журнал без fsync в потоке вызова, данные могут потеряться при сбое ОС
+    ASYNC, // записи собираются в пакеты фоновым потоком и сбрасываются на диск, вызов не ждет fsync
+    SYNC   // вызов ждет, пока пакет с его записью будет записан и сброшен на диск
+}
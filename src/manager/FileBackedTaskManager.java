@@ -2,146 +2,1136 @@ package manager;
 
 import exception.ManagerSaveException;
 import model.*;
+import util.CsvReader;
+import util.CsvWriter;
+import util.IntHashSet;
 
 import java.io.*;
-import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
 import java.time.*;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
-public class FileBackedTaskManager extends InMemoryTaskManager {
+/**
+ * Менеджер, сохраняющий состояние в файл. Полный снимок пишется в CSV только при вызове save(),
+ * каждое изменение дописывается одной строкой в журнал рядом со снимком (файл с суффиксом .journal).
+ * При загрузке к снимку применяются записи журнала, после чего они переносятся в новый снимок.
+ * <p>
+ * Когда журнал достигает порогов CompactionPolicy, он переименовывается в .journal.rotated (это делает поток
+ * записи журнала), новые записи идут в чистый журнал, а снимок состояния на момент переименования пишется
+ * в фоновом потоке. Если запись снимка не удалась, записи переносятся в закрытый журнал .journal.sealed.
+ * Загрузка применяет к снимку закрытый, переименованный и текущий журналы в этом порядке. Порог по времени
+ * дополнительно проверяется в потоке сжатия по расписанию, так что журнал сворачивается и без новых изменений;
+ * close() останавливает этот поток.
+ * <p>
+ * Надежность записи журнала задается DurabilityMode в PersistenceSettings, там же выбирается формат снимка
+ * (CSV, двоичный, отображаемый в память или сегментированный). При загрузке формат определяется по содержимому файла.
+ * Для сегментированного формата менеджер запоминает сегменты с измененными id и при записи снимка
+ * перезаписывает только их. Отображаемый в память снимок без журналов поверх него загружается в фоновом потоке:
+ * до окончания загрузки задачи и подзадачи по id читаются прямо из отображения, остальные методы ждут загрузки.
+ * <p>
+ * С PersistenceSettings.compressed() снимки и оставшиеся на диске закрытые журналы сжимаются GZIP; сжатие
+ * выполняется потоком записи снимка, при загрузке файлы распаковываются на лету независимо от настроек.
+ * <p>
+ * При PersistenceSettings.descriptionCacheSize() &gt; 0 задачи хранятся без описаний, а описания лежат в DescriptionStore:
+ * их получают только getTask/getEpic/getSubtask и get*View, снимок дочитывает их из файла при записи.
+ * <p>
+ * История просмотров хранится последовательностью id в файле &lt;файл&gt;.history, который пишется только вместе
+ * со снимком: просмотры не попадают в журнал, поэтому чтение не растит его и не ждет записи на диск, а просмотры
+ * после последнего снимка при сбое теряются.
+ */
+public class FileBackedTaskManager extends InMemoryTaskManager implements AutoCloseable {
     private final File file;
+    private final File journal;
+    private final File sealedJournal;
+    private final File rotatedJournal; // записи, вошедшие в записываемый в фоне снимок
+    private final CompactionPolicy compactionPolicy;
+    private final DurabilityMode durabilityMode;
+    private final SnapshotFormat snapshotFormat;
+    private final boolean compressed;
+    private final JournalWriter journalWriter;
+    private final SegmentedSnapshotStore segmentStore;
+    private final File historyFile;
+    private final DescriptionStore descriptions; // null - описания хранятся в задачах
     private static final String HEADER = "id,type,name,status,description,epic,startTime,duration";
+    private static final String LAST_ID_KEY = "lastId";
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String SEALED_SUFFIX = ".sealed";
+    private static final String ROTATED_SUFFIX = ".rotated";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String UPSERT = "upsert";
+    private static final String REMOVE = "remove";
+    private static final String CLEAR = "clear";
+    private static final String VIEW = "view";
+    private static final String HISTORY_SUFFIX = ".history";
+    private static final int SEGMENT_SIZE = 1024;
+
+    private boolean snapshotWritten; // до первого снимка прежнее содержимое файла не относится к этому менеджеру
+    private boolean replaying;
+    private volatile boolean durabilityDeferred;
+    private long journalBytes;
+    private int journalRecords;
+    private long lastSnapshotNanos = System.nanoTime();
+    private ScheduledExecutorService compactor;
+    private Future<?> compaction;
+    private final IntHashSet dirtySegments = new IntHashSet();
+    private boolean allSegmentsDirty = true; // сегменты на диске не соответствуют состоянию менеджера
+    private volatile boolean segmentWriteFailed; // выставляется потоком записи снимка, в том числе фоновым
+    private volatile MappedTaskStore unloadedSnapshot; // отображенный снимок, еще не загруженный в хранилища
+    private final ReadWriteLock stateLock = new ReentrantReadWriteLock(); // эксклюзивно берет только плановое сжатие
+    private final Object loadLock = new Object();
+    private final Object unloadedViewsLock = new Object();
+    private final IntStream.Builder unloadedViews = IntStream.builder(); // просмотры, выполненные до загрузки снимка
 
     public FileBackedTaskManager(HistoryManager historyManager, String pathName) {
+        this(historyManager, pathName, PersistenceSettings.defaults());
+    }
+
+    public FileBackedTaskManager(HistoryManager historyManager, String pathName, PersistenceSettings settings) {
         super(historyManager);
         this.file = new File(pathName);
+        this.journal = new File(pathName + JOURNAL_SUFFIX);
+        this.sealedJournal = new File(pathName + JOURNAL_SUFFIX + SEALED_SUFFIX);
+        this.rotatedJournal = new File(pathName + JOURNAL_SUFFIX + ROTATED_SUFFIX);
+        this.historyFile = new File(pathName + HISTORY_SUFFIX);
+        this.compactionPolicy = settings.compactionPolicy();
+        this.durabilityMode = settings.durabilityMode();
+        this.snapshotFormat = settings.snapshotFormat();
+        this.compressed = settings.compressed();
+        this.journalWriter = new JournalWriter(journal.toPath(), settings.durabilityMode(), settings.maxPendingRecords());
+        this.segmentStore = new SegmentedSnapshotStore(file, HEADER, FileBackedTaskManager::toStringLine,
+                settings.durabilityMode() != DurabilityMode.NONE, settings.compressed());
+        this.descriptions = settings.descriptionCacheSize() > 0
+                ? new DescriptionStore(file.toPath(), settings.descriptionCacheSize()) : null;
     }
 
-    private static String toStringLine(Task task) {
+    private static String toStringLine(TaskView task) {
         StringBuilder sb = new StringBuilder();
 
-        sb.append(String.format("%d,%s,%s,%s,%s,%d,%d,", task.getId(),
-                task.getType(),
-                task.getTitle(),
-                task.getStatus(),
-                task.getDescription(),
-                task.getStartTime() == null ? 0 :
-                        task.getStartTime().toInstant(ZoneOffset.UTC).toEpochMilli(),
-                task.getDuration().toMillis()));
+        sb.append(task.id()).append(',').append(task.type()).append(',');
+        CsvWriter.appendField(sb, task.title()).append(',').append(task.status()).append(',');
+        CsvWriter.appendField(sb, task.description()).append(',')
+                .append(task.startTime() == null ? 0 : task.startTime().toInstant(ZoneOffset.UTC).toEpochMilli()).append(',')
+                .append(task.duration().toMillis()).append(',');
 
-        if (task instanceof Subtask) {
-            sb.append(((Subtask) task).getEpicId());
+        if (task.epicId() != null) {
+            sb.append(task.epicId());
         }
 
         return sb.toString();
     }
 
+    private static Task fromFields(List<String> fields, int from) {
+        Integer id = Integer.parseInt(fields.get(from));
+        TaskType type = TaskType.valueOf(fields.get(from + 1));
+        String title = fields.get(from + 2);
+        TaskStatus status = TaskStatus.valueOf(fields.get(from + 3));
+        String description = fields.get(from + 4);
+        long startMillis = Long.parseLong(fields.get(from + 5));
+        LocalDateTime startTime = startMillis == 0 ? null :
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(startMillis), ZoneOffset.UTC);
+        Duration duration = Duration.ofMillis(Long.parseLong(fields.get(from + 6)));
+        String epicField = fields.size() > from + 7 ? fields.get(from + 7) : "";
+        Integer epicId = !epicField.isBlank() ? Integer.parseInt(epicField) : null;
+
+        return switch (type) {
+            case TASK -> new Task(id, title, description, status, type, startTime, duration);
+            case SUBTASK -> new Subtask(id, title, description, status, type, epicId, startTime, duration);
+            case EPIC -> new Epic(id, title, description, status, type, new HashSet<>(), startTime, duration);
+        };
+    }
+
     @Override
     public int addEpic(Epic epic) {
-        int id = super.addEpic(epic);
-        save();
-        return id;
+        return guarded(() -> {
+            ensureLoaded();
+            int id = super.addEpic(epic);
+            if (id != -1) journalUpsert(epic); // отклоненная задача не попадает в журнал
+            return id;
+        });
     }
 
     @Override
     public int addTask(Task task) {
-        int id = super.addTask(task);
-        save();
-        return id;
+        return guarded(() -> {
+            ensureLoaded();
+            int id = super.addTask(task);
+            if (id != -1) journalUpsert(task);
+            return id;
+        });
     }
 
     @Override
     public int addSubtask(Subtask subtask) {
-        int id = super.addSubtask(subtask);
-        save();
-        return id;
+        return guarded(() -> {
+            ensureLoaded();
+            int id = super.addSubtask(subtask);
+            if (id != -1) journalUpsert(subtask);
+            return id;
+        });
     }
 
     @Override
     public Epic removeEpic(int id) {
-        Epic epic = super.removeEpic(id);
-        save();
-        return epic;
+        return guarded(() -> {
+            ensureLoaded();
+            Epic epic = super.removeEpic(id);
+            markDirty(id);
+            forgetDescription(id);
+            if (epic != null) {
+                epic.getSubtasksId().forEachInt(this::markDirty);
+                epic.getSubtasksId().forEachInt(this::forgetDescription);
+            }
+            journal(REMOVE + "," + TaskType.EPIC + "," + id);
+            return epic;
+        });
     }
 
     @Override
     public Task removeTask(int id) {
-        Task task = super.removeTask(id);
-        save();
-        return task;
+        return guarded(() -> {
+            ensureLoaded();
+            Task task = super.removeTask(id);
+            markDirty(id);
+            forgetDescription(id);
+            journal(REMOVE + "," + TaskType.TASK + "," + id);
+            return task;
+        });
     }
 
     @Override
     public Subtask removeSubtask(int id) {
-        Subtask subtask = super.removeSubtask(id);
-        save();
-        return subtask;
+        return guarded(() -> {
+            ensureLoaded();
+            Subtask subtask = super.removeSubtask(id);
+            markDirty(id);
+            forgetDescription(id);
+            if (subtask != null && subtask.getEpicId() != null) markDirty(subtask.getEpicId());
+            journal(REMOVE + "," + TaskType.SUBTASK + "," + id);
+            return subtask;
+        });
     }
 
     @Override
     public void clearEpics() {
-        super.clearEpics();
-        save();
+        guarded(() -> {
+            ensureLoaded();
+            forgetDescriptions(getEpicViews());
+            forgetDescriptions(getSubtaskViews());
+            super.clearEpics();
+            allSegmentsDirty = true;
+            journal(CLEAR + "," + TaskType.EPIC);
+        });
     }
 
     @Override
     public void clearTasks() {
-        super.clearTasks();
-        save();
+        guarded(() -> {
+            ensureLoaded();
+            forgetDescriptions(getTaskViews());
+            super.clearTasks();
+            allSegmentsDirty = true;
+            journal(CLEAR + "," + TaskType.TASK);
+        });
     }
 
     @Override
     public void clearSubtasks() {
-        super.clearSubtasks();
-        save();
+        guarded(() -> {
+            ensureLoaded();
+            forgetDescriptions(getSubtaskViews());
+            super.clearSubtasks();
+            allSegmentsDirty = true;
+            journal(CLEAR + "," + TaskType.SUBTASK);
+        });
     }
 
     @Override
     public void updateEpic(Epic epic) {
-        super.updateEpic(epic);
-        save();
+        guarded(() -> {
+            ensureLoaded();
+            super.updateEpic(epic);
+            journalUpsert(epic);
+        });
     }
 
     @Override
     public void updateTask(Task task) {
-        super.updateTask(task);
-        save();
+        guarded(() -> {
+            ensureLoaded();
+            super.updateTask(task);
+            journalUpsert(task);
+        });
     }
 
     @Override
     public void updateSubtask(Subtask subtask) {
-        super.updateSubtask(subtask);
-        save();
+        guarded(() -> {
+            ensureLoaded();
+            super.updateSubtask(subtask);
+            journalUpsert(subtask);
+        });
+    }
+
+    @Override
+    public Task getTask(int id) {
+        return guarded(() -> {
+            TaskView unloaded = findUnloaded(TaskType.TASK, id);
+            if (unloaded != null) return unloaded.toTask();
+
+            ensureLoaded();
+            Task task = super.getTask(id);
+            return withDescription(task);
+        });
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        return guarded(() -> {
+            ensureLoaded();
+            Epic epic = super.getEpic(id);
+            return withDescription(epic);
+        });
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        return guarded(() -> {
+            TaskView unloaded = findUnloaded(TaskType.SUBTASK, id);
+            if (unloaded != null) return (Subtask) unloaded.toTask();
+
+            ensureLoaded();
+            Subtask subtask = super.getSubtask(id);
+            return withDescription(subtask);
+        });
+    }
+
+    @Override
+    public TaskView getTaskView(int id) {
+        return guarded(() -> {
+            TaskView unloaded = findUnloaded(TaskType.TASK, id);
+            if (unloaded != null) return unloaded;
+
+            ensureLoaded();
+            TaskView view = super.getTaskView(id);
+            return withDescription(view);
+        });
+    }
+
+    @Override
+    public TaskView getEpicView(int id) {
+        return guarded(() -> {
+            ensureLoaded();
+            TaskView view = super.getEpicView(id);
+            return withDescription(view);
+        });
+    }
+
+    @Override
+    public TaskView getSubtaskView(int id) {
+        return guarded(() -> {
+            TaskView unloaded = findUnloaded(TaskType.SUBTASK, id);
+            if (unloaded != null) return unloaded;
+
+            ensureLoaded();
+            TaskView view = super.getSubtaskView(id);
+            return withDescription(view);
+        });
+    }
+
+    @Override
+    public List<Epic> getEpics() {
+        ensureLoaded();
+        return super.getEpics();
+    }
+
+    @Override
+    public List<Task> getTasks() {
+        ensureLoaded();
+        return super.getTasks();
+    }
+
+    @Override
+    public List<Subtask> getSubtasks() {
+        ensureLoaded();
+        return super.getSubtasks();
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasksByEpic(Epic epic) {
+        ensureLoaded();
+        return super.getAllSubtasksByEpic(epic);
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        ensureLoaded();
+        return super.getHistory();
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        ensureLoaded();
+        return super.getPrioritizedTasks();
+    }
+
+    @Override
+    public List<TaskView> getTaskViews() {
+        ensureLoaded();
+        return super.getTaskViews();
+    }
+
+    @Override
+    public List<TaskView> getEpicViews() {
+        ensureLoaded();
+        return super.getEpicViews();
+    }
+
+    @Override
+    public List<TaskView> getSubtaskViews() {
+        ensureLoaded();
+        return super.getSubtaskViews();
+    }
+
+    @Override
+    public List<TaskView> getPrioritizedTaskViews() {
+        ensureLoaded();
+        return super.getPrioritizedTaskViews();
+    }
+
+    @Override
+    public List<TaskView> getHistoryViews() {
+        ensureLoaded();
+        return super.getHistoryViews();
+    }
+
+    @Override
+    public ViewPage getTaskViewPage(String cursor, int limit) {
+        ensureLoaded();
+        return super.getTaskViewPage(cursor, limit);
+    }
+
+    @Override
+    public ViewPage getEpicViewPage(String cursor, int limit) {
+        ensureLoaded();
+        return super.getEpicViewPage(cursor, limit);
+    }
+
+    @Override
+    public ViewPage getSubtaskViewPage(String cursor, int limit) {
+        ensureLoaded();
+        return super.getSubtaskViewPage(cursor, limit);
+    }
+
+    @Override
+    public ViewPage getPrioritizedTaskViewPage(String cursor, int limit) {
+        ensureLoaded();
+        return super.getPrioritizedTaskViewPage(cursor, limit);
+    }
+
+    @Override
+    public ViewPage getHistoryViewPage(String cursor, int limit) {
+        ensureLoaded();
+        return super.getHistoryViewPage(cursor, limit);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected <T extends Task> T toStored(T task) {
+        if (descriptions == null) return task;
+
+        Task stored = switch (task) {
+            case Epic epic -> new Epic(epic);
+            case Subtask subtask -> new Subtask(subtask);
+            default -> new Task(task);
+        };
+        stored.setDescription(null);
+
+        return (T) stored;
+    }
+
+    @Override
+    protected void onRemoved(int id) {
+        forgetDescription(id);
+    }
+
+    // Описание попадает в хранилище только после того, как задача принята, иначе отклоненное обновление заменило бы его
+    @Override
+    protected void onStored(Task task) {
+        if (descriptions != null) descriptions.put(task.getId(), task.getDescription());
+    }
+
+    // Задача, возвращаемая методом чтения, - копия, поэтому описание можно подставить прямо в нее
+    private <T extends Task> T withDescription(T task) {
+        if (descriptions != null) {
+            task.setDescription(descriptions.get(task.getId()));
+        }
+
+        return task;
+    }
+
+    private TaskView withDescription(TaskView view) {
+        return descriptions == null ? view : view.withDescription(descriptions.get(view.id()));
+    }
+
+    // Описания подставляются при обращении к элементу, т.е. при записи снимка, а не при его фиксации
+    private List<TaskView> withStoredDescriptions(List<TaskView> snapshot) {
+        if (descriptions == null) return snapshot;
+
+        return new AbstractList<>() {
+            @Override
+            public TaskView get(int index) {
+                TaskView view = snapshot.get(index);
+                return view.withDescription(descriptions.read(view.id()));
+            }
+
+            @Override
+            public int size() {
+                return snapshot.size();
+            }
+        };
+    }
+
+    private void forgetDescription(int id) {
+        if (descriptions != null) descriptions.remove(id);
+    }
+
+    private void forgetDescriptions(List<TaskView> views) {
+        if (descriptions == null) return;
+
+        for (TaskView view : views) {
+            descriptions.remove(view.id());
+        }
+    }
+
+    @Override
+    public int reserveIds(int count) {
+        return guarded(() -> {
+            ensureLoaded();
+            int firstId = super.reserveIds(count);
+            journal(LAST_ID_KEY + "," + getIdAllocator().getLastId());
+            return firstId;
+        });
     }
 
     public void save() {
-        Set<Task> allTasks = new LinkedHashSet<>();
-        allTasks.addAll(this.getTasks());
-        allTasks.addAll(this.getEpics());
-        allTasks.addAll(this.getSubtasks());
+        guarded(() -> {
+            ensureLoaded();
+            awaitCompaction();
+            journalWriter.close();
+            prepareSnapshotWrite().run();
+
+            try {
+                // все записи журналов уже вошли в снимок
+                Files.deleteIfExists(sealedJournal.toPath());
+                Files.deleteIfExists(rotatedJournal.toPath());
+                Files.deleteIfExists(journal.toPath());
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка очистки журнала");
+            }
+
+            snapshotWritten = true;
+            resetJournalCounters();
+        });
+    }
+
+    /**
+     * Дожидается фонового снимка, дописывает журнал на диск, сохраняет историю просмотров, останавливает поток
+     * сжатия и удаляет файл описаний. После close() менеджер не используется: состояние загружается из файла заново.
+     */
+    @Override
+    public void close() {
+        guarded(() -> {
+            awaitCompaction();
+            journalWriter.close();
+
+            if (snapshotWritten && unloadedSnapshot == null) {
+                writeHistory(getHistoryIds()); // просмотры после последнего снимка не попадают в журнал
+            }
+
+            if (compactor != null) {
+                compactor.shutdownNow(); // в очереди остаются только плановые проверки
+
+                try {
+                    compactor.awaitTermination(1, TimeUnit.MINUTES);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                compactor = null;
+            }
+
+            if (descriptions != null) {
+                try {
+                    descriptions.close();
+                } catch (IOException e) {
+                    throw new ManagerSaveException("Ошибка закрытия файла описаний");
+                }
+            }
+        });
+    }
+
+    // Дожидается записи на диск всех изменений, принятых в журнал
+    public void flush() {
+        journalWriter.flush();
+    }
+
+    /**
+     * Изменяющие методы больше не ждут сброса журнала на диск в режиме SYNC: обертка с блокировкой запоминает
+     * journalSequence() и вызывает awaitDurable() после ее освобождения, чтобы записи других потоков успели
+     * попасть в тот же пакет.
+     */
+    void deferDurability() {
+        durabilityDeferred = true;
+    }
+
+    long journalSequence() {
+        return journalWriter.appendedSequence();
+    }
+
+    void awaitDurable(long sequence) {
+        journalWriter.awaitDurable(sequence);
+    }
+
+    long journalBatches() {
+        return journalWriter.writtenBatches();
+    }
+
+    // Дожидается записи фонового снимка, если она выполняется
+    void awaitCompaction() {
+        Future<?> pending = compaction;
+
+        if (pending == null) return;
+
+        try {
+            pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // закрытый журнал остался на диске и будет учтен при следующем сжатии или загрузке
+        }
+    }
+
+    // Фиксирует данные снимка в текущем потоке и возвращает запись на диск, которую можно выполнить в другом потоке
+    private Runnable prepareSnapshotWrite() {
+        int lastId = getIdAllocator().getLastId();
+        int[] history = getHistoryIds();
+
+        if (snapshotFormat != SnapshotFormat.SEGMENTED) {
+            List<TaskView> snapshot = withStoredDescriptions(captureSnapshot());
+            return () -> {
+                writeHistory(history);
+                writeSnapshot(snapshot, lastId);
+            };
+        }
+
+        boolean replaceAll = allSegmentsDirty || segmentWriteFailed;
+        List<SegmentedSnapshotStore.Segment> segments = (replaceAll ? captureAllSegments() : captureDirtySegments()).stream()
+                .map(segment -> new SegmentedSnapshotStore.Segment(segment.number(), withStoredDescriptions(segment.tasks())))
+                .toList();
 
-        try (FileWriter writer = new FileWriter(file)) {
-            writer.write(HEADER + "\n");
+        dirtySegments.clear();
+        allSegmentsDirty = false;
+        segmentWriteFailed = false;
 
-            for (Task task : allTasks) {
-                writer.write(toStringLine(task) + "\n");
+        return () -> {
+            try {
+                writeHistory(history);
+                segmentStore.write(segments, replaceAll, SEGMENT_SIZE, lastId, LAST_ID_KEY);
+            } catch (RuntimeException e) {
+                // набор измененных сегментов уже очищен, поэтому следующий снимок перепишет все сегменты
+                segmentWriteFailed = true;
+                throw e;
+            }
+        };
+    }
+
+    private List<SegmentedSnapshotStore.Segment> captureAllSegments() {
+        Map<Integer, List<TaskView>> segments = new TreeMap<>();
+
+        for (TaskView task : captureSnapshot()) {
+            segments.computeIfAbsent(SegmentedSnapshotStore.segmentOf(task.id(), SEGMENT_SIZE), number -> new ArrayList<>())
+                    .add(task);
+        }
+
+        return segments.entrySet().stream()
+                .map(entry -> new SegmentedSnapshotStore.Segment(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    // Содержимое каждого измененного сегмента собирается поиском по его диапазону id, без обхода всех задач
+    private List<SegmentedSnapshotStore.Segment> captureDirtySegments() {
+        List<SegmentedSnapshotStore.Segment> segments = new ArrayList<>();
+
+        for (int number : dirtySegments.toIntArray()) {
+            List<TaskView> tasks = new ArrayList<>();
+            long firstId = (long) number * SEGMENT_SIZE;
+
+            for (long id = firstId; id < firstId + SEGMENT_SIZE; id++) {
+                for (TaskType store : TaskType.values()) {
+                    TaskView view = findView(store, (int) id);
+                    if (view != null) tasks.add(view);
+                }
+            }
+
+            segments.add(new SegmentedSnapshotStore.Segment(number, tasks));
+        }
+
+        return segments;
+    }
+
+    private void markDirty(int id) {
+        if (snapshotFormat == SnapshotFormat.SEGMENTED) {
+            dirtySegments.add(SegmentedSnapshotStore.segmentOf(id, SEGMENT_SIZE));
+        }
+    }
+
+    // Представления неизменяемы, поэтому список ссылок на них - согласованный срез состояния на текущий момент
+    private List<TaskView> captureSnapshot() {
+        List<TaskView> snapshot = new ArrayList<>();
+        snapshot.addAll(getTaskViews());
+        snapshot.addAll(getEpicViews());
+        snapshot.addAll(getSubtaskViews());
+        return snapshot;
+    }
+
+    private void writeSnapshot(List<TaskView> snapshot, int lastId) {
+        Path target = file.toPath();
+        Path temp = Path.of(file.getPath() + TEMP_SUFFIX);
+
+        try (FileOutputStream out = new FileOutputStream(temp.toFile())) {
+            // отображаемый в память снимок читается напрямую из файла, поэтому не сжимается
+            if (compressed && snapshotFormat != SnapshotFormat.MAPPED) {
+                try (CompressedFiles.GzipMember gzip = CompressedFiles.compress(out)) {
+                    writeSnapshot(gzip, snapshot, lastId);
+                    gzip.finish();
+                }
+            } else {
+                writeSnapshot(out, snapshot, lastId);
+            }
+
+            if (durabilityMode != DurabilityMode.NONE) {
+                out.getFD().sync(); // снимок должен быть на диске до того, как заменит старый и журнал будет удален
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка сохранения в файл");
+        }
+
+        moveIntoPlace(temp, target);
+    }
+
+    private void writeSnapshot(OutputStream out, List<TaskView> snapshot, int lastId) throws IOException {
+        switch (snapshotFormat) {
+            case CSV -> writeCsvSnapshot(out, snapshot, lastId);
+            case BINARY -> writeBinarySnapshot(out, snapshot, lastId);
+            case MAPPED -> MappedTaskStore.write(out, snapshot, lastId);
+        }
+    }
+
+    private void writeHistory(int[] history) {
+        Path temp = Path.of(historyFile.getPath() + TEMP_SUFFIX);
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < history.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(history[i]);
+        }
+
+        try (FileOutputStream out = new FileOutputStream(temp.toFile())) {
+            out.write(sb.append('\n').toString().getBytes(StandardCharsets.UTF_8));
+
+            if (durabilityMode != DurabilityMode.NONE) {
+                out.getFD().sync();
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка сохранения истории");
+        }
+
+        moveIntoPlace(temp, historyFile.toPath());
+    }
+
+    private static void moveIntoPlace(Path temp, Path target) {
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException ex) {
+                throw new ManagerSaveException("Ошибка сохранения в файл");
             }
         } catch (IOException e) {
             throw new ManagerSaveException("Ошибка сохранения в файл");
         }
     }
 
+    private void loadHistory() throws IOException {
+        if (!historyFile.exists()) return;
+
+        List<String> fields = new ArrayList<>();
+
+        try (CsvReader reader = new CsvReader(Files.newBufferedReader(historyFile.toPath(), StandardCharsets.UTF_8))) {
+            while (reader.readRecord(fields)) {
+                for (String id : fields) {
+                    if (!id.isEmpty()) restoreHistory(Integer.parseInt(id));
+                }
+            }
+        }
+    }
+
+    private static void writeCsvSnapshot(OutputStream out, List<TaskView> snapshot, int lastId) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(HEADER + "\n");
+
+        for (TaskView task : snapshot) {
+            writer.write(toStringLine(task) + "\n");
+        }
+
+        writer.write("\n");
+        writer.write(LAST_ID_KEY + "," + lastId + "\n");
+        writer.flush();
+    }
+
+    private static void writeBinarySnapshot(OutputStream out, List<TaskView> snapshot, int lastId) throws IOException {
+        BinarySnapshotWriter writer = new BinarySnapshotWriter(out);
+        writer.writeHeader(lastId, snapshot.size());
+
+        for (TaskView task : snapshot) {
+            writer.write(task);
+        }
+
+        writer.flush();
+    }
+
+    private void compactInBackground() {
+        if (compaction != null && !compaction.isDone()) return;
+
+        Runnable snapshotWrite = prepareSnapshotWrite();
+
+        // записи, принятые до этого момента, вошли в снимок; файл с ними переименует поток записи журнала
+        journalWriter.rotate(rotatedJournal.toPath());
+        resetJournalCounters();
+
+        compaction = compactor().submit(() -> {
+            try {
+                journalWriter.awaitRotation();
+                snapshotWrite.run();
+            } catch (RuntimeException e) {
+                sealRotatedJournal(); // закрытый журнал остается на диске до следующего снимка
+                throw e;
+            }
+
+            try {
+                Files.deleteIfExists(sealedJournal.toPath());
+                Files.deleteIfExists(rotatedJournal.toPath());
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка очистки журнала");
+            }
+        });
+    }
+
+    private ScheduledExecutorService compactor() {
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "journal-compactor-" + file.getName());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+            if (compactionPolicy.hasMaxInterval()) {
+                long nanos = compactionPolicy.maxInterval().toNanos();
+                compactor.scheduleWithFixedDelay(this::compactIfStale, nanos, nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        return compactor;
+    }
+
+    /**
+     * Плановая проверка порога по времени: без изменений journal() его не проверяет. Выполняется в потоке сжатия
+     * под эксклюзивной блокировкой; если менеджер сейчас занят, проверка переносится на следующий запуск.
+     */
+    private void compactIfStale() {
+        if (!stateLock.writeLock().tryLock()) return;
+
+        try {
+            if (compactionPolicy.isDue(journalBytes, journalRecords, Duration.ofNanos(System.nanoTime() - lastSnapshotNanos))) {
+                compactInBackground();
+            }
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+    }
+
+    // Операции менеджера берут общую блокировку, чтобы плановое сжатие не фиксировало снимок посреди них
+    private <R> R guarded(Supplier<R> action) {
+        stateLock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    private void guarded(Runnable action) {
+        guarded(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Переносит записи, не попавшие в снимок из-за ошибки, в закрытый журнал, чтобы следующий rotate()
+     * снова мог использовать файл rotated. Закрытый журнал от предыдущих неудачных попыток старше, поэтому
+     * новые записи дописываются в его конец.
+     */
+    private void sealRotatedJournal() {
+        try {
+            if (rotatedJournal.exists()) {
+                if (sealedJournal.exists()) {
+                    CompressedFiles.append(sealedJournal.toPath(), rotatedJournal.toPath());
+                    Files.delete(rotatedJournal.toPath());
+                } else {
+                    Files.move(rotatedJournal.toPath(), sealedJournal.toPath());
+                }
+            }
+
+            if (compressed && sealedJournal.exists()) {
+                CompressedFiles.compressInPlace(sealedJournal.toPath());
+            }
+        } catch (IOException e) {
+            // оба файла проигрываются при загрузке, несжатый журнал тоже читается
+        }
+    }
+
+    private void resetJournalCounters() {
+        journalBytes = 0;
+        journalRecords = 0;
+        lastSnapshotNanos = System.nanoTime();
+    }
+
+    private void journalUpsert(Task task) {
+        markDirty(task.getId());
+
+        if (task instanceof Subtask subtask && subtask.getEpicId() != null) {
+            markDirty(subtask.getEpicId()); // статус и время эпика пересчитаны
+        }
+
+        journal(UPSERT + "," + toStringLine(TaskView.of(task)));
+    }
+
+    private void awaitJournal(long sequence) {
+        if (!durabilityDeferred) journalWriter.awaitDurable(sequence);
+    }
+
+    private void journal(String record) {
+        if (replaying) return;
+
+        if (!snapshotWritten) {
+            save();
+            return;
+        }
+
+        awaitJournal(journalWriter.append(record));
+
+        journalBytes += record.length() + 1;
+        journalRecords++;
+
+        if (compactionPolicy.isDue(journalBytes, journalRecords, Duration.ofNanos(System.nanoTime() - lastSnapshotNanos))) {
+            compactInBackground();
+        } else if (compactor == null && compactionPolicy.hasMaxInterval()) {
+            compactor(); // запускает плановую проверку порога по времени
+        }
+    }
+
+    /**
+     * Применяет запись журнала к хранилищам так же, как загрузка снимка: без проверок пересечений и пересчета
+     * эпиков, которые выполняются один раз в finishBulkLoad(). Запись задает итоговое состояние задачи, а не
+     * операцию над ним, поэтому ее повторное применение не меняет результат, и журнал можно проигрывать поверх
+     * снимка, в который он уже вошел. Просмотры откладываются в views до построения представлений.
+     */
+    private void replay(List<String> record, IntStream.Builder views) {
+        switch (record.getFirst()) {
+            case UPSERT -> {
+                Task task = fromFields(record, 1);
+
+                bulkRemove(task.getType(), task.getId());
+                bulkLoad(task);
+                markDirty(task.getId());
+
+                if (task instanceof Subtask subtask && subtask.getEpicId() != null) {
+                    markDirty(subtask.getEpicId());
+                }
+            }
+            case REMOVE -> {
+                TaskType store = TaskType.valueOf(record.get(1));
+                int id = Integer.parseInt(record.get(2));
+                Task removed = bulkRemove(store, id);
+
+                markDirty(id);
+
+                if (removed instanceof Subtask subtask && subtask.getEpicId() != null) {
+                    markDirty(subtask.getEpicId());
+                } else if (removed instanceof Epic) {
+                    allSegmentsDirty = true; // подзадачи эпика могут лежать в любых сегментах
+                }
+            }
+            case CLEAR -> {
+                bulkClear(TaskType.valueOf(record.get(1)));
+                allSegmentsDirty = true;
+            }
+            case VIEW -> views.add(Integer.parseInt(record.get(1))); // журналы прежних версий
+            case LAST_ID_KEY -> getIdAllocator().register(Integer.parseInt(record.get(1)));
+            default -> throw new ManagerSaveException("Неизвестная запись журнала: " + String.join(",", record));
+        }
+    }
+
+    private Integer loadCsvSnapshot() throws IOException {
+        Integer lastId = null;
+        boolean isMetadata = false;
+        List<String> fields = new ArrayList<>();
+
+        try (CsvReader reader = new CsvReader(new InputStreamReader(CompressedFiles.openInput(file.toPath()), StandardCharsets.UTF_8))) {
+            while (reader.readRecord(fields)) {
+                if (fields.size() == 1 && fields.getFirst().isEmpty()) {
+                    isMetadata = true; // после пустой строки идут служебные данные в формате key,value
+                    continue;
+                }
+
+                if (isMetadata) {
+                    if (fields.size() == 2 && fields.getFirst().equals(LAST_ID_KEY)) {
+                        lastId = Integer.parseInt(fields.get(1));
+                    }
+                    continue;
+                }
+
+                if (fields.getFirst().equals("id")) continue;
+
+                bulkLoad(fromFields(fields, 0));
+            }
+        }
+
+        return lastId;
+    }
+
+    private Integer loadBinarySnapshot() throws IOException {
+        try (BinarySnapshotReader reader = new BinarySnapshotReader(CompressedFiles.openInput(file.toPath()))) {
+            while (reader.hasNext()) {
+                bulkLoad(reader.next().toTask());
+            }
+
+            return reader.getLastId();
+        }
+    }
+
+    private Integer loadMappedSnapshot() {
+        try (MappedTaskStore store = MappedTaskStore.open(file.toPath())) {
+            for (int i = 0; i < store.size(); i++) {
+                bulkLoad(store.get(i).toTask());
+            }
+
+            return store.getLastId();
+        }
+    }
+
+    // Снимок без журналов поверх него: задачи по id читаются из отображения сразу, хранилища заполняются в фоне
+    private void startLoading(MappedTaskStore snapshot) {
+        getIdAllocator().register(snapshot.getLastId());
+        unloadedSnapshot = snapshot;
+        snapshotWritten = true;
+
+        Thread loader = new Thread(this::ensureLoaded, "snapshot-loader-" + file.getName());
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    // Загружает отображенный снимок в хранилища; методы, которым нужно все состояние, вызывают его первым
+    private void ensureLoaded() {
+        if (unloadedSnapshot == null) return;
+
+        synchronized (loadLock) {
+            MappedTaskStore snapshot = unloadedSnapshot;
+            if (snapshot == null) return;
+
+            for (int i = 0; i < snapshot.size(); i++) {
+                bulkLoad(snapshot.get(i).toTask());
+            }
+            finishBulkLoad();
+
+            try {
+                loadHistory();
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка чтения из файла");
+            }
+
+            synchronized (unloadedViewsLock) {
+                unloadedViews.build().forEach(this::restoreHistory);
+                unloadedSnapshot = null;
+            }
+
+            snapshot.close(); // отображение больше не читается и не держит файл, который заменит следующий снимок
+        }
+    }
+
+    /**
+     * Задача или подзадача прямо из отображенного снимка, пока он не загружен в хранилища, или null - тогда запрос
+     * выполняется обычным путем после загрузки. Эпики так не читаются: их подзадачи и время собираются при загрузке.
+     */
+    private TaskView findUnloaded(TaskType type, int id) {
+        MappedTaskStore snapshot = unloadedSnapshot;
+        if (snapshot == null) return null;
+
+        TaskView view = snapshot.find(id);
+        if (view == null || view.type() != type) return null;
+
+        synchronized (unloadedViewsLock) {
+            if (unloadedSnapshot != null) {
+                unloadedViews.add(id); // попадет в историю после просмотров из файла истории
+            } else {
+                restoreHistory(id);
+            }
+        }
+
+        return view;
+    }
+
+    private boolean hasJournal() {
+        return sealedJournal.length() > 0 || rotatedJournal.length() > 0 || journal.length() > 0;
+    }
+
+    // Журнал применяется к хранилищам до finishBulkLoad(); возвращает количество примененных записей
+    private int replayJournal(File journalFile, IntStream.Builder views) throws IOException {
+        if (!journalFile.exists()) return 0;
+
+        int count = 0;
+        List<String> fields = new ArrayList<>();
+
+        try (CsvReader reader = new CsvReader(new InputStreamReader(CompressedFiles.openInput(journalFile.toPath()), StandardCharsets.UTF_8))) {
+            while (reader.readRecord(fields)) {
+                if (fields.size() == 1 && fields.getFirst().isEmpty()) continue;
+
+                replay(fields, views);
+                count++;
+            }
+        }
+
+        return count;
+    }
+
     public static FileBackedTaskManager loadFromFile(File file) {
-        FileBackedTaskManager taskManager = new FileBackedTaskManager(new InMemoryHistoryManager(), file.getPath());
+        return loadFromFile(file, PersistenceSettings.defaults());
+    }
 
-        Integer id;
-        TaskType type;
-        String title;
-        TaskStatus status;
-        String description;
-        Integer epicId;
-        LocalDateTime startTime;
-        Duration duration;
+    public static FileBackedTaskManager loadFromFile(File file, PersistenceSettings settings) {
+        FileBackedTaskManager taskManager = new FileBackedTaskManager(new InMemoryHistoryManager(), file.getPath(), settings);
 
         try {
             if (!file.exists()) {
@@ -150,48 +1140,50 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
                 return taskManager;
             }
 
-            List<String> lines = Files.readAllLines(file.toPath());
+            taskManager.replaying = true;
+
+            Integer lastId;
 
-            Map<Integer, Integer> epicIdBySubtaskId = new HashMap<>();
+            if (SegmentedSnapshotStore.isSegmentedSnapshot(file)) {
+                lastId = taskManager.segmentStore.load(fields -> taskManager.bulkLoad(fromFields(fields, 0)), LAST_ID_KEY);
+                taskManager.allSegmentsDirty = false;
+            } else if (MappedTaskStore.isMappedStore(file)) {
+                if (!taskManager.hasJournal()) {
+                    taskManager.startLoading(MappedTaskStore.open(file.toPath()));
+                    return taskManager;
+                }
 
-            for (String line : lines) {
-                if (line.isBlank()) break;
-                if (line.startsWith("id")) continue;
+                lastId = taskManager.loadMappedSnapshot();
+            } else if (BinarySnapshotReader.isBinarySnapshot(file)) {
+                lastId = taskManager.loadBinarySnapshot();
+            } else {
+                lastId = taskManager.loadCsvSnapshot();
+            }
 
-                String[] split = line.split("\s*,\s*", 8);
+            IntStream.Builder views = IntStream.builder();
+            int records = taskManager.replayJournal(taskManager.sealedJournal, views)
+                    + taskManager.replayJournal(taskManager.rotatedJournal, views)
+                    + taskManager.replayJournal(taskManager.journal, views);
 
-                id = Integer.parseInt(split[0]);
-                type = TaskType.valueOf(split[1]);
-                title = split[2];
-                status = TaskStatus.valueOf(split[3]);
-                description = split[4];
-                startTime = Long.parseLong(split[5]) == 0 ? null :
-                        LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(split[5])), ZoneOffset.UTC);
-                duration = Duration.ofMillis(Long.parseLong(split[6]));
-                epicId = !split[7].isBlank() ? Integer.parseInt(split[7]) : null;
+            taskManager.finishBulkLoad();
+            taskManager.loadHistory();
+            // id не используются повторно, поэтому просмотр удаленной позже задачи просто пропускается
+            views.build().forEach(taskManager::restoreHistory);
 
-                switch (type) {
-                    case TASK ->
-                            taskManager.addTask(new Task(id, title, description, status, type, startTime, duration));
-                    case SUBTASK -> {
-                        if (epicId != null) {
-                            taskManager.addSubtask(new Subtask(id, title, description, status, type, taskManager.getEpic(epicId), startTime, duration));
-                            epicIdBySubtaskId.put(id, epicId);
-                        } // Subtask должен быть всегда привязан к Epic, проверку поставил что бы избежать NullPointerException, некорректные Subtask будут пропущены
-                    }
-                    case EPIC ->
-                            taskManager.addEpic(new Epic(id, title, description, status, type, new HashSet<>(), startTime, duration));
-                }
+            if (lastId != null) {
+                taskManager.getIdAllocator().register(lastId);
             }
 
-            for (Map.Entry<Integer, Integer> entry : epicIdBySubtaskId.entrySet()) {
-                Subtask subtask = taskManager.getSubtask(entry.getKey());
-                Epic epic = taskManager.getEpic(entry.getValue());
-                epic.addOrUpdateSubtask(subtask);
-                taskManager.updateEpic(epic);
+            taskManager.replaying = false;
+            taskManager.snapshotWritten = true;
+
+            if (records > 0) {
+                taskManager.save();
             }
         } catch (IOException e) {
             throw new ManagerSaveException("Ошибка чтения из файла");
+        } finally {
+            taskManager.replaying = false;
         }
         return taskManager;
     }
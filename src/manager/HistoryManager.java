@@ -1,13 +1,18 @@
 package manager;
 
 import model.Task;
+import model.TaskView;
 
 import java.util.List;
 
 public interface HistoryManager {
     List<Task> getHistory();
 
+    List<TaskView> getHistoryViews();
+
     void add(Task task);
 
+    void add(TaskView view);
+
     void remove(int id);
 }
@@ -0,0 +1,13 @@
+package manager;
+
+public interface IdAllocator {
+    int nextId();
+
+    // Резервирует непрерывный блок из count id и возвращает первый из них
+    int reserve(int count);
+
+    // Гарантирует, что следующие выданные id будут больше указанного
+    void register(int id);
+
+    int getLastId();
+}
@@ -1,40 +1,47 @@
 package manager;
 
-import model.Epic;
-import model.Subtask;
 import model.Task;
+import model.TaskView;
+import util.IntHashMap;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public class InMemoryHistoryManager implements HistoryManager {
 
-    private final Map<Integer, Node<Task>> history = new HashMap<>();
-    private Node<Task> first;
-    private Node<Task> last;
+    private final IntHashMap<Node<TaskView>> history = new IntHashMap<>();
+    private Node<TaskView> first;
+    private Node<TaskView> last;
 
     @Override
     public void add(Task task) {
         if (task == null) return;
 
-        if (history.containsKey(task.getId())) {
-            remove(task.getId());
-        }
+        add(TaskView.of(task));
+    }
 
-        if (task instanceof Subtask) {
-            history.put(task.getId(), linkLast(new Subtask((Subtask) task)));
-        } else if (task instanceof Epic) {
-            history.put(task.getId(), linkLast(new Epic((Epic) task)));
-        } else {
-            history.put(task.getId(), linkLast(new Task(task)));
+    // Представление неизменяемо, поэтому хранится без копирования
+    @Override
+    public void add(TaskView view) {
+        if (view == null) return;
+
+        if (history.containsKey(view.id())) {
+            remove(view.id());
         }
+
+        history.put(view.id(), linkLast(view));
     }
 
     @Override
     public List<Task> getHistory() {
-        return getTasks();
+        return getViews().stream()
+                .map(TaskView::toTask)
+                .toList();
+    }
+
+    @Override
+    public List<TaskView> getHistoryViews() {
+        return getViews();
     }
 
     @Override
@@ -46,7 +53,7 @@ public class InMemoryHistoryManager implements HistoryManager {
         removeNode(history.remove(id));
     }
 
-    private class Node<T extends Task> {
+    private class Node<T> {
         private T data;
         private Node<T> next;
         private Node<T> previous;
@@ -64,10 +71,10 @@ public class InMemoryHistoryManager implements HistoryManager {
         }
     }
 
-    private Node<Task> linkLast(Task task) {
-        if (task == null) return null;
+    private Node<TaskView> linkLast(TaskView view) {
+        if (view == null) return null;
 
-        Node<Task> newNode = new Node<>(task);
+        Node<TaskView> newNode = new Node<>(view);
 
         if (first == null) {
             first = newNode;
@@ -80,28 +87,19 @@ public class InMemoryHistoryManager implements HistoryManager {
         return newNode;
     }
 
-    private List<Task> getTasks() {
-        List<Task> tasks = new ArrayList<>();
-        Node<Task> current = first;
+    private List<TaskView> getViews() {
+        List<TaskView> views = new ArrayList<>(history.size());
+        Node<TaskView> current = first;
 
         while (current != null) {
-            Task temp = current.data;
-
-            if (temp instanceof Subtask) {
-                tasks.add(new Subtask((Subtask) temp));
-            } else if (temp instanceof Epic) {
-                tasks.add(new Epic((Epic) temp));
-            } else {
-                tasks.add(new Task(temp));
-            }
-
+            views.add(current.data);
             current = current.next;
         }
 
-        return tasks;
+        return views;
     }
 
-    private void removeNode(Node<Task> node) {
+    private void removeNode(Node<TaskView> node) {
         if (node == null) return;
 
         if (node == first) {
@@ -5,28 +5,56 @@ import exception.TaskOverlappingException;
 import model.Epic;
 import model.Subtask;
 import model.Task;
-import model.TaskStatus;
+import model.TaskType;
+import model.TaskView;
+import model.ViewPage;
+import util.IntHashMap;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
 
 public class InMemoryTaskManager implements TaskManager {
+    private static final Comparator<TaskView> BY_ID = Comparator.comparingInt(TaskView::id);
 
     private final HistoryManager historyManager;
 
-    private int taskId;
-    private final Set<Integer> taskIds = new HashSet<>();
-    private final Map<Integer, Epic> epics = new HashMap<>();
-    private final Map<Integer, Task> tasks = new HashMap<>();
-    private final Map<Integer, Subtask> subtasks = new HashMap<>();
-    private final Comparator<Task> taskComparator = Comparator.comparing(Task::getStartTime);
-    private final Set<Task> prioritizedTasks = new TreeSet<>(taskComparator);
+    private final IdAllocator idAllocator;
+    private final IntHashMap<Epic> epics = new IntHashMap<>();
+    private final IntHashMap<Task> tasks = new IntHashMap<>();
+    private final IntHashMap<Subtask> subtasks = new IntHashMap<>();
+    private final ScheduleIndex prioritizedTasks;
+    private final IntHashMap<TaskView> epicViews = new IntHashMap<>();
+    private final IntHashMap<TaskView> taskViews = new IntHashMap<>();
+    private final IntHashMap<TaskView> subtaskViews = new IntHashMap<>();
+    private volatile List<TaskView> epicViewList; // null - список устарел и будет собран при следующем чтении
+    private volatile List<TaskView> taskViewList;
+    private volatile List<TaskView> subtaskViewList;
+    private volatile List<TaskView> prioritizedViewList;
+    // Версии начинаются со случайного значения, чтобы номера, выданные до перезапуска, не совпали с новыми
+    private final long versionEpoch = ThreadLocalRandom.current().nextLong(1L << 62);
+    private final AtomicLong version = new AtomicLong(versionEpoch);
+    private final AtomicLongArray versionByType = new AtomicLongArray(TaskType.values().length); // номер последнего изменения типа
 
     public InMemoryTaskManager(HistoryManager historyManager) {
-        taskId = 1;
+        this(historyManager, new IntervalScheduleIndex());
+    }
+
+    public InMemoryTaskManager(HistoryManager historyManager, ScheduleIndex scheduleIndex) {
+        this(historyManager, scheduleIndex, new AtomicIdAllocator());
+    }
+
+    public InMemoryTaskManager(HistoryManager historyManager, ScheduleIndex scheduleIndex, IdAllocator idAllocator) {
         this.historyManager = historyManager;
+        this.prioritizedTasks = scheduleIndex;
+        this.idAllocator = idAllocator;
+
+        for (TaskType type : TaskType.values()) {
+            versionByType.set(type.ordinal(), versionEpoch);
+        }
     }
 
     @Override
@@ -52,15 +80,19 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public int addEpic(Epic epic) {
-        if (epic != null && !taskIds.contains(epic.getId())) {
+        if (epic != null && !isIdInUse(epic.getId())) {
             if (epic.getId() == null) {
                 int id = generateId();
                 epic.setId(id);
+            } else {
+                idAllocator.register(epic.getId());
             }
 
-            epics.put(epic.getId(), epic);
-            taskIds.add(epic.getId());
-            return epic.getId();
+            Epic stored = toStored(epic);
+            epics.put(stored.getId(), stored);
+            onStored(epic);
+            refreshEpicView(stored);
+            return stored.getId();
         }
 
         return -1;
@@ -68,24 +100,28 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public int addTask(Task task) {
-        if (task != null && !taskIds.contains(task.getId())) {
+        if (task != null && !isIdInUse(task.getId())) {
             if (task.getId() == null) {
                 int id = generateId();
                 task.setId(id);
+            } else {
+                idAllocator.register(task.getId());
             }
 
-            if (isInvalidDateTime(task)) {
-                tasks.put(task.getId(), task);
-                taskIds.add(task.getId());
-            } else if (!isOverlapping(task)) {
-                tasks.put(task.getId(), task);
-                taskIds.add(task.getId());
-                prioritizedTasks.add(task);
+            Task stored = toStored(task);
+
+            if (isInvalidDateTime(stored)) {
+                tasks.put(stored.getId(), stored);
+            } else if (!isOverlapping(stored)) {
+                tasks.put(stored.getId(), stored);
+                prioritizedTasks.add(stored);
             } else {
                 throw new TaskOverlappingException("Указанное время задач пересекается с другими задачами или задано некорректно");
             }
 
-            return task.getId();
+            onStored(task);
+            refreshTaskView(stored);
+            return stored.getId();
         }
 
         return -1;
@@ -93,35 +129,40 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public int addSubtask(Subtask subtask) {
-        if (subtask != null && !taskIds.contains(subtask.getId())) {
+        if (subtask != null && !isIdInUse(subtask.getId())) {
             if (subtask.getId() == null) {
                 int id = generateId();
                 subtask.setId(id);
+            } else {
+                idAllocator.register(subtask.getId());
             }
 
-            if (isInvalidDateTime(subtask)) {
-                subtasks.put(subtask.getId(), subtask);
-                taskIds.add(subtask.getId());
-            } else if (!isOverlapping(subtask)) {
-                subtasks.put(subtask.getId(), subtask);
-                taskIds.add(subtask.getId());
-                prioritizedTasks.add(subtask);
+            Subtask stored = toStored(subtask);
+
+            if (isInvalidDateTime(stored)) {
+                subtasks.put(stored.getId(), stored);
+            } else if (!isOverlapping(stored)) {
+                subtasks.put(stored.getId(), stored);
+                prioritizedTasks.add(stored);
             } else {
                 throw new TaskOverlappingException("Указанное время задач пересекается с другими задачами или задано некорректно");
             }
 
-            Integer epicId = subtask.getEpicId();
+            onStored(subtask);
+            refreshSubtaskView(stored);
+            Integer epicId = stored.getEpicId();
 
             if (epicId == null || !epics.containsKey(epicId)) {
                 throw new NotFoundException("Epic c id = " + epicId + " отсутствует");
             } else {
                 Epic epic = epics.get(epicId);
-                epic.addOrUpdateSubtask(subtask);
+                epic.addOrUpdateSubtask(stored);
                 checkEpicStatus(epic);
                 calculateTimeAndDurationOfEpic(epic);
+                refreshEpicView(epic);
             }
 
-            return subtask.getId();
+            return stored.getId();
         }
         return -1;
     }
@@ -131,16 +172,19 @@ public class InMemoryTaskManager implements TaskManager {
         Epic epic = epics.remove(id);
 
         historyManager.remove(id);
-        taskIds.remove(id);
+        epicViews.remove(id);
 
-        epic.getSubtasksId().forEach(
+        epic.getSubtasksId().forEachInt(
                 subtaskId -> {
                     historyManager.remove(subtaskId);
-                    prioritizedTasks.remove(subtasks.get(subtaskId));
+                    prioritizedTasks.remove(subtaskId);
                     subtasks.remove(subtaskId);
-                    taskIds.remove(subtaskId);
+                    subtaskViews.remove(subtaskId);
                 });
 
+        invalidateViews(TaskType.EPIC);
+        if (!epic.getSubtasksId().isEmpty()) invalidateViews(TaskType.SUBTASK);
+
         return epic;
     }
 
@@ -148,8 +192,9 @@ public class InMemoryTaskManager implements TaskManager {
     public Task removeTask(int id) {
         Task task = tasks.remove(id);
         historyManager.remove(id);
-        taskIds.remove(id);
-        prioritizedTasks.remove(task);
+        prioritizedTasks.remove(id);
+        taskViews.remove(id);
+        invalidateViews(TaskType.TASK);
         return task;
     }
 
@@ -157,124 +202,139 @@ public class InMemoryTaskManager implements TaskManager {
     public Subtask removeSubtask(int id) {
         Subtask subtask = subtasks.remove(id);
         historyManager.remove(id);
-        taskIds.remove(id);
-        prioritizedTasks.remove(subtask);
+        prioritizedTasks.remove(id);
+        subtaskViews.remove(id);
+        invalidateViews(TaskType.SUBTASK);
 
         Epic epic = epics.get(subtask.getEpicId());
         epic.removeSubtask(subtask);
         checkEpicStatus(epic);
         calculateTimeAndDurationOfEpic(epic);
+        refreshEpicView(epic);
 
         return subtask;
     }
 
     @Override
     public List<Subtask> getAllSubtasksByEpic(Epic epic) {
-        if (!epics.containsKey(epic.getId())) {
+        Epic storedEpic = epics.get(epic.getId());
+
+        if (storedEpic == null) {
             throw new NotFoundException("Epic с id = " + epic.getId() + " не найден!");
         }
 
-        List<Integer> subtasksId = epic.getSubtasksId().stream().toList();
+        int[] subtasksId = storedEpic.getSubtasksId().toIntArray();
+        Arrays.sort(subtasksId);
 
-        return subtasks.values().stream()
-                .filter(subtask -> subtasksId.contains(subtask.getId()))
+        return Arrays.stream(subtasksId)
+                .mapToObj(subtasks::get)
+                .filter(Objects::nonNull)
                 .toList();
     }
 
     @Override
     public void clearEpics() {
-        epics.values().forEach(epic -> {
-            historyManager.remove(epic.getId());
-            taskIds.remove(epic.getId());
-        });
+        epics.values().forEach(epic -> historyManager.remove(epic.getId()));
 
         subtasks.values().forEach(subtask -> {
             historyManager.remove(subtask.getId());
-            taskIds.remove(subtask.getId());
-            prioritizedTasks.remove(subtask);
+            prioritizedTasks.remove(subtask.getId());
         });
 
         epics.clear();
         subtasks.clear();
+        epicViews.clear();
+        subtaskViews.clear();
+        invalidateViews(TaskType.EPIC);
+        invalidateViews(TaskType.SUBTASK);
     }
 
     @Override
     public void clearTasks() {
         tasks.values().forEach(task -> {
             historyManager.remove(task.getId());
-            taskIds.remove(task.getId());
-            prioritizedTasks.remove(task);
+            prioritizedTasks.remove(task.getId());
         });
 
         tasks.clear();
+        taskViews.clear();
+        invalidateViews(TaskType.TASK);
     }
 
     @Override
     public void clearSubtasks() {
         epics.values().forEach(
                 epic -> {
-                    epic.getSubtasksId().clear();
+                    epic.clearSubtasks();
                     checkEpicStatus(epic);
                     calculateTimeAndDurationOfEpic(epic);
+                    refreshEpicView(epic);
                 });
 
         subtasks.values().forEach(subtask -> {
             historyManager.remove(subtask.getId());
-            taskIds.remove(subtask.getId());
-            prioritizedTasks.remove(subtask);
+            prioritizedTasks.remove(subtask.getId());
         });
 
         subtasks.clear();
+        subtaskViews.clear();
+        invalidateViews(TaskType.SUBTASK);
     }
 
     @Override
     public void updateEpic(Epic epic) {
-        checkEpicStatus(epic);
-        calculateTimeAndDurationOfEpic(epic);
-        epics.put(epic.getId(), epic);
+        Epic stored = toStored(epic);
+
+        recalculateEpicSubtasks(stored);
+        checkEpicStatus(stored);
+        calculateTimeAndDurationOfEpic(stored);
+        epics.put(stored.getId(), stored);
+        onStored(epic);
+        refreshEpicView(stored);
     }
 
     @Override
     public void updateTask(Task task) {
-        Task taskBeforeUpdate = tasks.get(task.getId());
-        boolean isInPrioritizedList = prioritizedTasks.contains(taskBeforeUpdate);
-
-        if (isInPrioritizedList) {
-            prioritizedTasks.remove(taskBeforeUpdate);
-        }
-
-        if (isInvalidDateTime(task)) {
-            tasks.put(task.getId(), task);
-        } else if (!isOverlapping(task)) {
-            tasks.put(task.getId(), task);
-            prioritizedTasks.add(task);
+        Task stored = toStored(task);
+
+        if (isInvalidDateTime(stored)) {
+            prioritizedTasks.remove(stored.getId());
+            tasks.put(stored.getId(), stored);
+        } else if (!isOverlapping(stored)) {
+            tasks.put(stored.getId(), stored);
+            prioritizedTasks.add(stored);
         } else {
-            prioritizedTasks.add(taskBeforeUpdate);
             throw new TaskOverlappingException("Указанное время задач пересекается с другими задачами или задано некорректно");
         }
+
+        onStored(task);
+        refreshTaskView(stored);
     }
 
     @Override
     public void updateSubtask(Subtask subtask) {
-        Subtask subtaskBeforeUpdate = subtasks.get(subtask.getId());
-        boolean isInPrioritizedList = prioritizedTasks.contains(subtaskBeforeUpdate);
-
-        if (isInPrioritizedList) {
-            prioritizedTasks.remove(subtaskBeforeUpdate);
-        }
-
-        if (isInvalidDateTime(subtask)) {
-            subtasks.put(subtask.getId(), subtask);
-        } else if (!isOverlapping(subtask)) {
-            subtasks.put(subtask.getId(), subtask);
-            prioritizedTasks.add(subtask);
+        Subtask stored = toStored(subtask);
+
+        if (isInvalidDateTime(stored)) {
+            prioritizedTasks.remove(stored.getId());
+            subtasks.put(stored.getId(), stored);
+        } else if (!isOverlapping(stored)) {
+            subtasks.put(stored.getId(), stored);
+            prioritizedTasks.add(stored);
         } else {
-            prioritizedTasks.add(subtaskBeforeUpdate);
             throw new TaskOverlappingException("Указанное время задач пересекается с другими задачами или задано некорректно");
         }
 
-        checkEpicStatus(epics.get(subtask.getEpicId()));
-        calculateTimeAndDurationOfEpic(epics.get(subtask.getEpicId()));
+        onStored(subtask);
+        refreshSubtaskView(stored);
+        Epic epic = stored.getEpicId() == null ? null : epics.get(stored.getEpicId());
+
+        if (epic != null) {
+            epic.addOrUpdateSubtask(stored);
+            checkEpicStatus(epic);
+            calculateTimeAndDurationOfEpic(epic);
+            refreshEpicView(epic);
+        }
     }
 
     @Override
@@ -282,9 +342,8 @@ public class InMemoryTaskManager implements TaskManager {
         Optional<Task> taskOptional = Optional.ofNullable(tasks.get(id));
 
         if (taskOptional.isPresent()) {
-            Task task = new Task(taskOptional.get());
-            historyManager.add(task);
-            return task;
+            historyManager.add(taskViews.get(id));
+            return new Task(taskOptional.get());
         } else {
             throw new NotFoundException("Task с id = " + id + " не найден!");
         }
@@ -295,9 +354,8 @@ public class InMemoryTaskManager implements TaskManager {
         Optional<Epic> epicOptional = Optional.ofNullable(epics.get(id));
 
         if (epicOptional.isPresent()) {
-            Epic epic = new Epic(epicOptional.get());
-            historyManager.add(epic);
-            return epic;
+            historyManager.add(epicViews.get(id));
+            return new Epic(epicOptional.get());
         } else {
             throw new NotFoundException("Epic с id = " + id + " не найден!");
         }
@@ -308,14 +366,275 @@ public class InMemoryTaskManager implements TaskManager {
         Optional<Subtask> subtaskOptional = Optional.ofNullable(subtasks.get(id));
 
         if (subtaskOptional.isPresent()) {
-            Subtask subtask = new Subtask(subtaskOptional.get());
-            historyManager.add(subtask);
-            return subtask;
+            historyManager.add(subtaskViews.get(id));
+            return new Subtask(subtaskOptional.get());
         } else {
             throw new NotFoundException("Subtask с id = " + id + " не найден!");
         }
     }
 
+    @Override
+    public TaskView getTaskView(int id) {
+        return getView(taskViews, id, "Task");
+    }
+
+    @Override
+    public TaskView getEpicView(int id) {
+        return getView(epicViews, id, "Epic");
+    }
+
+    @Override
+    public TaskView getSubtaskView(int id) {
+        return getView(subtaskViews, id, "Subtask");
+    }
+
+    @Override
+    public List<TaskView> getTaskViews() {
+        List<TaskView> views = taskViewList;
+
+        if (views == null) {
+            views = taskViews.values().stream().sorted(BY_ID).toList();
+            taskViewList = views;
+        }
+
+        return views;
+    }
+
+    @Override
+    public List<TaskView> getEpicViews() {
+        List<TaskView> views = epicViewList;
+
+        if (views == null) {
+            views = epicViews.values().stream().sorted(BY_ID).toList();
+            epicViewList = views;
+        }
+
+        return views;
+    }
+
+    @Override
+    public List<TaskView> getSubtaskViews() {
+        List<TaskView> views = subtaskViewList;
+
+        if (views == null) {
+            views = subtaskViews.values().stream().sorted(BY_ID).toList();
+            subtaskViewList = views;
+        }
+
+        return views;
+    }
+
+    @Override
+    public List<TaskView> getPrioritizedTaskViews() {
+        List<TaskView> views = prioritizedViewList;
+
+        if (views == null) {
+            views = prioritizedTasks.getTasks().stream()
+                    .map(task -> taskViews.containsKey(task.getId()) ? taskViews.get(task.getId()) : subtaskViews.get(task.getId()))
+                    .toList();
+            prioritizedViewList = views;
+        }
+
+        return views;
+    }
+
+    @Override
+    public List<TaskView> getHistoryViews() {
+        return historyManager.getHistoryViews();
+    }
+
+    @Override
+    public ViewPage getTaskViewPage(String cursor, int limit) {
+        return pageById(getTaskViews(), cursor, limit);
+    }
+
+    @Override
+    public ViewPage getEpicViewPage(String cursor, int limit) {
+        return pageById(getEpicViews(), cursor, limit);
+    }
+
+    @Override
+    public ViewPage getSubtaskViewPage(String cursor, int limit) {
+        return pageById(getSubtaskViews(), cursor, limit);
+    }
+
+    // Список приоритетов упорядочен по времени начала, курсор - время начала и id последней отданной задачи
+    @Override
+    public ViewPage getPrioritizedTaskViewPage(String cursor, int limit) {
+        List<TaskView> views = getPrioritizedTaskViews();
+        int from = 0;
+
+        if (cursor != null) {
+            PageCursor.StartTimeKey key = PageCursor.decodeStartTime(cursor);
+            from = firstMatching(views, view -> view.startTime().isAfter(key.startTime())
+                    || view.startTime().equals(key.startTime()) && view.id() > key.id());
+        }
+
+        return page(views, from, limit, last -> PageCursor.ofStartTime(views.get(last).startTime(), views.get(last).id()));
+    }
+
+    // У истории нет ключа сортировки, поэтому курсор - номер следующего элемента
+    @Override
+    public ViewPage getHistoryViewPage(String cursor, int limit) {
+        List<TaskView> views = getHistoryViews();
+        int from = cursor == null ? 0 : Math.min(PageCursor.decodePosition(cursor), views.size());
+
+        return page(views, from, limit, last -> PageCursor.ofPosition(last + 1));
+    }
+
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    @Override
+    public long getVersion(TaskType type) {
+        return versionByType.get(type.ordinal());
+    }
+
+    // Блок id для массового импорта: задачи с этими id можно добавлять без риска конфликта с новыми задачами
+    public int reserveIds(int count) {
+        return idAllocator.reserve(count);
+    }
+
+    /**
+     * Объект, который будет лежать в хранилище вместо переданного. По умолчанию хранится сам объект вызывающего;
+     * наследник может хранить облегченную копию, id у переданного объекта к этому моменту уже назначен.
+     * Метод не должен иметь побочных эффектов: задача еще может быть отклонена проверкой пересечений.
+     */
+    protected <T extends Task> T toStored(T task) {
+        return task;
+    }
+
+    // Вызывается, когда результат toStored(task) прошел проверки и помещен в хранилище
+    protected void onStored(Task task) {
+    }
+
+    // Представление из хранилища указанного типа без записи в историю просмотров
+    protected TaskView findView(TaskType store, int id) {
+        return switch (store) {
+            case TASK -> taskViews.get(id);
+            case EPIC -> epicViews.get(id);
+            case SUBTASK -> subtaskViews.get(id);
+        };
+    }
+
+    /**
+     * Добавляет задачу из доверенного источника (снимка) без проверки пересечений, записи в историю
+     * и пересчета эпика. Индексы и поля эпиков строятся один раз в finishBulkLoad().
+     */
+    protected boolean bulkLoad(Task task) {
+        if (task == null || task.getId() == null || isIdInUse(task.getId())) return false;
+        if (task instanceof Subtask subtask && subtask.getEpicId() == null) return false;
+
+        Task stored = toStored(task);
+
+        if (stored instanceof Epic epic) {
+            epics.put(epic.getId(), epic);
+        } else if (stored instanceof Subtask subtask) {
+            subtasks.put(subtask.getId(), subtask);
+        } else {
+            tasks.put(stored.getId(), stored);
+        }
+
+        onStored(task);
+        idAllocator.register(task.getId());
+        return true;
+    }
+
+    /**
+     * Удаляет задачу из хранилища при загрузке без каскада и пересчета эпика: подзадачи удаленного эпика
+     * отбрасываются, а индексы перестраиваются в finishBulkLoad(). Возвращает удаленную задачу или null.
+     */
+    protected Task bulkRemove(TaskType store, int id) {
+        Task removed = switch (store) {
+            case TASK -> tasks.remove(id);
+            case EPIC -> epics.remove(id);
+            case SUBTASK -> subtasks.remove(id);
+        };
+
+        if (removed != null) onRemoved(id);
+        return removed;
+    }
+
+    // Очищает хранилище при загрузке; подзадачи очищенных эпиков отбрасываются в finishBulkLoad()
+    protected void bulkClear(TaskType store) {
+        IntHashMap<? extends Task> target = switch (store) {
+            case TASK -> tasks;
+            case EPIC -> epics;
+            case SUBTASK -> subtasks;
+        };
+
+        for (int id : target.keys()) {
+            onRemoved(id);
+        }
+        target.clear();
+    }
+
+    // Вызывается, когда задача удалена из хранилища при загрузке
+    protected void onRemoved(int id) {
+    }
+
+    // Перестраивает связи эпиков, их статус и время, список приоритетов и представления по всем хранилищам
+    protected void finishBulkLoad() {
+        epics.values().forEach(Epic::clearSubtasks);
+
+        for (int id : subtasks.keys()) {
+            Subtask subtask = subtasks.get(id);
+            Epic epic = epics.get(subtask.getEpicId());
+
+            if (epic == null) {
+                subtasks.remove(id); // подзадача без эпика пропускается, как и при обычном добавлении
+                onRemoved(id);
+                continue;
+            }
+
+            epic.addOrUpdateSubtask(subtask);
+        }
+
+        prioritizedTasks.clear();
+        epicViews.clear();
+        taskViews.clear();
+        subtaskViews.clear();
+
+        epics.values().forEach(epic -> {
+            checkEpicStatus(epic);
+            calculateTimeAndDurationOfEpic(epic);
+            epicViews.put(epic.getId(), TaskView.of(epic));
+        });
+
+        tasks.values().forEach(task -> {
+            if (!isInvalidDateTime(task)) prioritizedTasks.add(task);
+            taskViews.put(task.getId(), TaskView.of(task));
+        });
+
+        subtasks.values().forEach(subtask -> {
+            if (!isInvalidDateTime(subtask)) prioritizedTasks.add(subtask);
+            subtaskViews.put(subtask.getId(), TaskView.of(subtask));
+        });
+
+        invalidateViewLists();
+    }
+
+    // Возвращает в историю задачу из любого хранилища, не проходя через методы чтения
+    protected void restoreHistory(int id) {
+        TaskView view = taskViews.get(id);
+
+        if (view == null) view = epicViews.get(id);
+        if (view == null) view = subtaskViews.get(id);
+        if (view != null) historyManager.add(view);
+    }
+
+    protected int[] getHistoryIds() {
+        return historyManager.getHistoryViews().stream()
+                .mapToInt(TaskView::id)
+                .toArray();
+    }
+
+    protected IdAllocator getIdAllocator() {
+        return idAllocator;
+    }
+
     @Override
     public List<Task> getHistory() {
         return historyManager.getHistory();
@@ -323,96 +642,148 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public List<Task> getPrioritizedTasks() {
-        return prioritizedTasks.stream().toList();
+        return List.copyOf(prioritizedTasks.getTasks());
     }
 
-    private void checkEpicStatus(Epic epic) {
-        if (epic == null) return;
+    // Списки представлений упорядочены по id, поэтому начало страницы находится двоичным поиском
+    private static ViewPage pageById(List<TaskView> views, String cursor, int limit) {
+        int from = 0;
 
-        List<Subtask> subtaskList = subtasks.values().stream()
-                .filter(subtask -> epic.getSubtasksId().contains(subtask.getId()))
-                .toList();
+        if (cursor != null) {
+            int lastId = PageCursor.decodeId(cursor);
+            from = firstMatching(views, view -> view.id() > lastId);
+        }
 
-        int subtasksCount = subtaskList.size();
+        return page(views, from, limit, last -> PageCursor.ofId(views.get(last).id()));
+    }
 
-        if (subtasksCount == 0) {
-            epic.setStatus(TaskStatus.NEW);
-            return;
+    private static ViewPage page(List<TaskView> views, int from, int limit, IntFunction<String> cursorAfter) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Размер страницы должен быть положительным");
         }
 
-        long doneCount = subtaskList.stream()
-                .filter(subtask -> subtask.getStatus() == TaskStatus.DONE)
-                .count();
+        int to = (int) Math.min(views.size(), (long) from + limit);
+        return new ViewPage(views.subList(from, to), to < views.size() ? cursorAfter.apply(to - 1) : null);
+    }
 
-        long newCount = subtaskList.stream()
-                .filter(subtask -> subtask.getStatus() == TaskStatus.NEW)
-                .count();
+    // Индекс первого элемента, для которого условие выполняется; условие должно быть монотонным по списку
+    private static int firstMatching(List<TaskView> views, Predicate<TaskView> condition) {
+        int low = 0;
+        int high = views.size();
 
-        if (doneCount == subtasksCount) {
-            epic.setStatus(TaskStatus.DONE);
-        } else if (newCount == subtasksCount) {
-            epic.setStatus(TaskStatus.NEW);
-        } else {
-            epic.setStatus(TaskStatus.IN_PROGRESS);
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (condition.test(views.get(middle))) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
         }
+
+        return low;
     }
 
-    private int generateId() {
-        while (taskIds.contains(taskId)) {
-            taskId++;
+    private TaskView getView(IntHashMap<TaskView> views, int id, String typeName) {
+        TaskView view = views.get(id);
+
+        if (view == null) {
+            throw new NotFoundException(typeName + " с id = " + id + " не найден!");
         }
 
-        return taskId;
+        historyManager.add(view);
+        return view;
     }
 
-    private void calculateTimeAndDurationOfEpic(Epic epic) {
-        List<Subtask> subtaskList = prioritizedTasks.stream()
-                .filter(t -> epic.getSubtasksId().contains(t.getId()))
-                .map(s -> (Subtask) s)
-                .toList();
+    // Все изменения хранилищ проходят через обновление представлений, поэтому здесь же растут счетчики версий
+    private void refreshEpicView(Epic epic) {
+        epicViews.put(epic.getId(), TaskView.of(epic));
+        epicViewList = null;
+        bumpVersion(TaskType.EPIC);
+    }
 
-        if (!subtaskList.isEmpty()) {
-            LocalDateTime startTime = subtaskList.stream()
-                    .min(taskComparator)
-                    .get()
-                    .getStartTime();
+    private void refreshTaskView(Task task) {
+        taskViews.put(task.getId(), TaskView.of(task));
+        taskViewList = null;
+        prioritizedViewList = null;
+        bumpVersion(TaskType.TASK);
+    }
 
-            Duration duration = subtaskList.stream()
-                    .map(Subtask::getDuration)
-                    .reduce(Duration.ZERO, Duration::plus);
+    private void refreshSubtaskView(Subtask subtask) {
+        subtaskViews.put(subtask.getId(), TaskView.of(subtask));
+        subtaskViewList = null;
+        prioritizedViewList = null;
+        bumpVersion(TaskType.SUBTASK);
+    }
 
-            LocalDateTime endTime = subtaskList.stream()
-                    .max(Comparator.comparing(Subtask::getEndTime))
-                    .get()
-                    .getEndTime();
+    private void invalidateViewLists() {
+        for (TaskType type : TaskType.values()) {
+            invalidateViews(type);
+        }
+    }
 
-            epic.setStartTime(startTime);
-            epic.setDuration(duration);
-            epic.setEndTime(endTime);
-        } else {
-            epic.setStartTime(null);
-            epic.setDuration(Duration.ZERO);
-            epic.setEndTime(null);
+    // Сбрасывает список представлений и версию одного типа; список приоритетов собирается из задач и подзадач
+    private void invalidateViews(TaskType type) {
+        switch (type) {
+            case EPIC -> epicViewList = null;
+            case TASK -> {
+                taskViewList = null;
+                prioritizedViewList = null;
+            }
+            case SUBTASK -> {
+                subtaskViewList = null;
+                prioritizedViewList = null;
+            }
         }
+
+        bumpVersion(type);
     }
 
-    private boolean isOverlapping(Task task) {
-        if (prioritizedTasks.isEmpty()) return false;
+    private void bumpVersion(TaskType type) {
+        versionByType.set(type.ordinal(), version.incrementAndGet());
+    }
+
+    private void checkEpicStatus(Epic epic) {
+        if (epic == null) return;
 
-        LocalDateTime startTimeTask = task.getStartTime();
-        LocalDateTime endTimeTask = task.getEndTime();
+        epic.setStatus(epic.calculateStatus());
+    }
 
-        Map<LocalDateTime, LocalDateTime> startToEndTimeMap = prioritizedTasks.stream()
-                .collect(Collectors.toMap(Task::getStartTime, Task::getEndTime));
+    // Эпик мог прийти извне (например, из HTTP запроса), поэтому счетчики подзадач строятся заново
+    private void recalculateEpicSubtasks(Epic epic) {
+        int[] subtasksId = epic.getSubtasksId() == null ? new int[0] : epic.getSubtasksId().toIntArray();
+        List<Subtask> epicSubtasks = Arrays.stream(subtasksId)
+                .mapToObj(subtasks::get)
+                .filter(subtask -> subtask != null && Objects.equals(subtask.getEpicId(), epic.getId()))
+                .toList();
 
-        for (Map.Entry<LocalDateTime, LocalDateTime> entry : startToEndTimeMap.entrySet()) {
-            boolean notOverlap = entry.getKey().isAfter(endTimeTask) || entry.getValue().isBefore(startTimeTask);
-            if (!notOverlap) {
-                return true;
-            }
+        epic.clearSubtasks();
+        epicSubtasks.forEach(epic::addOrUpdateSubtask);
+    }
+
+    // Хранилища задач, эпиков и подзадач вместе образуют реестр занятых id
+    private boolean isIdInUse(Integer id) {
+        return id != null && (tasks.containsKey(id) || epics.containsKey(id) || subtasks.containsKey(id));
+    }
+
+    private int generateId() {
+        int id = idAllocator.nextId();
+
+        while (isIdInUse(id)) {
+            id = idAllocator.nextId();
         }
 
-        return false;
+        return id;
+    }
+
+    private void calculateTimeAndDurationOfEpic(Epic epic) {
+        epic.setStartTime(epic.calculateStartTime());
+        epic.setDuration(epic.calculateDuration());
+        epic.setEndTime(epic.calculateEndTime());
+    }
+
+    private boolean isOverlapping(Task task) {
+        return prioritizedTasks.isOverlapping(task);
     }
 
     private static boolean isInvalidDateTime(Task task) {
@@ -0,0 +1,83 @@
+package manager;
+
+import model.Task;
+import util.IntHashMap;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Индекс задач по времени начала. Так как пересечения задач не допускаются, интервалы в индексе
+ * не пересекаются между собой, и для проверки нового интервала достаточно сравнить его
+ * с ближайшими соседями слева и справа - O(log n).
+ */
+public class IntervalScheduleIndex implements ScheduleIndex {
+    private final NavigableMap<LocalDateTime, Task> tasksByStartTime = new TreeMap<>();
+    private final IntHashMap<LocalDateTime> startTimeById = new IntHashMap<>();
+
+    @Override
+    public boolean isOverlapping(Task task) {
+        return isOverlapping(task.getId(), task.getStartTime(), task.getEndTime());
+    }
+
+    @Override
+    public boolean isOverlapping(Integer id, LocalDateTime startTime, LocalDateTime endTime) {
+        if (tasksByStartTime.isEmpty()) return false;
+
+        Map.Entry<LocalDateTime, Task> previous = tasksByStartTime.floorEntry(startTime);
+        if (previous != null && isSameTask(previous.getValue(), id)) {
+            previous = tasksByStartTime.lowerEntry(previous.getKey());
+        }
+
+        if (previous != null && !previous.getValue().getEndTime().isBefore(startTime)) {
+            return true;
+        }
+
+        Map.Entry<LocalDateTime, Task> next = tasksByStartTime.ceilingEntry(startTime);
+        if (next != null && isSameTask(next.getValue(), id)) {
+            next = tasksByStartTime.higherEntry(next.getKey());
+        }
+
+        return next != null && !next.getKey().isAfter(endTime);
+    }
+
+    @Override
+    public void add(Task task) {
+        remove(task.getId());
+        tasksByStartTime.put(task.getStartTime(), task);
+        startTimeById.put(task.getId(), task.getStartTime());
+    }
+
+    @Override
+    public Task remove(Integer id) {
+        if (id == null) return null;
+
+        LocalDateTime startTime = startTimeById.remove(id);
+        return startTime == null ? null : tasksByStartTime.remove(startTime);
+    }
+
+    @Override
+    public boolean contains(Integer id) {
+        return id != null && startTimeById.containsKey(id);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return tasksByStartTime.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        tasksByStartTime.clear();
+        startTimeById.clear();
+    }
+
+    @Override
+    public Collection<Task> getTasks() {
+        return Collections.unmodifiableCollection(tasksByStartTime.values());
+    }
+
+    private static boolean isSameTask(Task task, Integer id) {
+        return id != null && id.equals(task.getId());
+    }
+}
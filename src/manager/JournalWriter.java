@@ -0,0 +1,273 @@
+package manager;
+
+import exception.ManagerSaveException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * Дописывает записи в файл журнала. В режимах ASYNC и SYNC записи от всех вызывающих потоков собираются
+ * фоновым потоком в пакеты: каждый пакет - одна запись в канал и один FileChannel.force (group commit).
+ * Пока идет сброс одного пакета, в очереди копится следующий.
+ * Файл открывается на время записи пакета, поэтому журнал можно удалить или заменить между пакетами.
+ * rotate() переносит принятые записи в другой файл, не дожидаясь их записи: переименование выполняет фоновый поток.
+ * close() дописывает очередь и останавливает фоновый поток; следующий append запустит его заново.
+ */
+class JournalWriter {
+    private final Path path;
+    private final DurabilityMode mode;
+    private final int maxPendingRecords;
+    private final Object lock = new Object();
+    private final Queue<String> pending = new ArrayDeque<>();
+
+    private Thread writerThread;
+    private boolean closing;
+    private long appendedSequence;
+    private long drainedSequence; // номер последней записи, выбранной из очереди в пакет
+    private long writtenSequence;
+    private long writtenBatches;
+    private Path rotationTarget; // null - переименование не запрошено
+    private long rotationSequence;
+    private IOException failure;
+
+    JournalWriter(Path path, DurabilityMode mode, int maxPendingRecords) {
+        this.path = path;
+        this.mode = mode;
+        this.maxPendingRecords = maxPendingRecords;
+    }
+
+    /**
+     * Принимает запись и возвращает ее номер. Вызов не ждет fsync даже в режиме SYNC: надежность записи
+     * дожидаются через awaitDurable(номер), например уже после освобождения блокировки вызывающего, чтобы
+     * записи других потоков успели попасть в тот же пакет.
+     */
+    long append(String record) {
+        synchronized (lock) {
+            throwIfFailed();
+
+            if (mode == DurabilityMode.NONE) {
+                try {
+                    write(record + "\n", false);
+                } catch (IOException e) {
+                    throw new ManagerSaveException("Ошибка записи в журнал");
+                }
+                writtenSequence = ++appendedSequence;
+                return appendedSequence;
+            }
+
+            while (pending.size() >= maxPendingRecords && failure == null) {
+                awaitWriter();
+            }
+            throwIfFailed();
+
+            pending.add(record);
+            ensureWriterThread();
+            lock.notifyAll();
+            return ++appendedSequence;
+        }
+    }
+
+    // В режиме SYNC дожидается записи на диск записей с номерами до sequence включительно
+    void awaitDurable(long sequence) {
+        if (mode != DurabilityMode.SYNC) return;
+
+        synchronized (lock) {
+            while (writtenSequence < sequence && failure == null) {
+                awaitWriter();
+            }
+
+            if (writtenSequence < sequence) throwIfFailed();
+        }
+    }
+
+    // Номер последней принятой записи
+    long appendedSequence() {
+        synchronized (lock) {
+            return appendedSequence;
+        }
+    }
+
+    // Количество записанных пакетов
+    long writtenBatches() {
+        synchronized (lock) {
+            return writtenBatches;
+        }
+    }
+
+    // Дожидается записи всех принятых записей
+    void flush() {
+        synchronized (lock) {
+            while (writtenSequence < appendedSequence && failure == null) {
+                awaitWriter();
+            }
+            throwIfFailed();
+        }
+    }
+
+    /**
+     * Переносит в target все записи, принятые до вызова; следующие записи попадут в новый файл журнала.
+     * Если target уже существует, записи дописываются в его конец. В режимах ASYNC и SYNC файл переименовывает
+     * фоновый поток после записи последнего пакета с такими записями, вызывающий поток не ждет ни записи, ни fsync.
+     */
+    void rotate(Path target) {
+        synchronized (lock) {
+            throwIfFailed();
+
+            if (mode == DurabilityMode.NONE) {
+                try {
+                    moveTo(target); // записи NONE пишутся в потоке вызова, очереди нет
+                } catch (IOException e) {
+                    throw new ManagerSaveException("Ошибка закрытия журнала");
+                }
+                return;
+            }
+
+            rotationTarget = target;
+            rotationSequence = appendedSequence;
+            ensureWriterThread();
+            lock.notifyAll();
+        }
+    }
+
+    // Дожидается переименования, запрошенного rotate()
+    void awaitRotation() {
+        synchronized (lock) {
+            while (rotationTarget != null && failure == null) {
+                awaitWriter();
+            }
+            throwIfFailed();
+        }
+    }
+
+    void close() {
+        synchronized (lock) {
+            flush();
+            closing = true;
+            lock.notifyAll();
+
+            while (writerThread != null) {
+                awaitWriter();
+            }
+
+            closing = false;
+        }
+    }
+
+    private void ensureWriterThread() {
+        if (writerThread == null) {
+            writerThread = new Thread(this::runWriter, "journal-writer-" + path.getFileName());
+            writerThread.setDaemon(true);
+            writerThread.start();
+        }
+    }
+
+    private void runWriter() {
+        while (true) {
+            StringBuilder batch = new StringBuilder();
+            long batchSequence;
+
+            synchronized (lock) {
+                while (pending.isEmpty() && rotationTarget == null && !closing) {
+                    awaitWriter();
+                }
+
+                if (rotationTarget != null && (drainedSequence == rotationSequence || failure != null)) {
+                    finishRotation(); // все записи до границы уже записаны этим потоком
+                    continue;
+                }
+
+                if (pending.isEmpty()) {
+                    writerThread = null;
+                    lock.notifyAll();
+                    return;
+                }
+
+                // пакет не пересекает границу переименования: более поздние записи должны попасть в новый файл
+                long limit = rotationTarget == null ? Long.MAX_VALUE : rotationSequence;
+                while (!pending.isEmpty() && drainedSequence < limit) {
+                    batch.append(pending.poll()).append('\n');
+                    drainedSequence++;
+                }
+                batchSequence = drainedSequence;
+                lock.notifyAll(); // в очереди освободилось место
+            }
+
+            IOException error = null;
+
+            try {
+                write(batch.toString(), true);
+            } catch (IOException e) {
+                error = e;
+            }
+
+            synchronized (lock) {
+                if (error != null) {
+                    failure = error;
+                } else {
+                    writtenSequence = batchSequence;
+                    writtenBatches++;
+                }
+                lock.notifyAll();
+            }
+        }
+    }
+
+    // Вызывается фоновым потоком под lock, поэтому append не запишет новую запись в переносимый файл
+    private void finishRotation() {
+        try {
+            if (failure == null) moveTo(rotationTarget);
+        } catch (IOException e) {
+            failure = e;
+        }
+
+        rotationTarget = null;
+        lock.notifyAll();
+    }
+
+    private void moveTo(Path target) throws IOException {
+        if (!Files.exists(path)) return;
+
+        if (Files.exists(target)) {
+            CompressedFiles.append(target, path);
+            Files.delete(path);
+        } else {
+            Files.move(path, target);
+        }
+    }
+
+    private void write(String records, boolean force) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(records.getBytes(StandardCharsets.UTF_8));
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+
+            if (force) {
+                channel.force(false);
+            }
+        }
+    }
+
+    private void awaitWriter() {
+        try {
+            lock.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManagerSaveException("Ожидание записи журнала прервано");
+        }
+    }
+
+    private void throwIfFailed() {
+        if (failure != null) {
+            throw new ManagerSaveException("Ошибка записи в журнал: " + failure.getMessage());
+        }
+    }
+}
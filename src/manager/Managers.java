@@ -1,16 +1,43 @@
 package manager;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+
 public class Managers {
 
     public static TaskManager getDefault() {
         return new InMemoryTaskManager(getDefaultHistory());
     }
 
+    public static TaskManager getSlotScheduledTaskManager(LocalDateTime planningStart, Duration planningHorizon) {
+        return new InMemoryTaskManager(getDefaultHistory(), new SlotBitmapScheduleIndex(planningStart, planningHorizon));
+    }
+
+    public static TaskManager getConcurrentTaskManager() {
+        return new ConcurrentTaskManager(new InMemoryTaskManager(getConcurrentHistory()), true);
+    }
+
+    public static TaskManager getConcurrentTaskManager(TaskManager taskManager) {
+        return new ConcurrentTaskManager(taskManager);
+    }
+
     public static HistoryManager getDefaultHistory() {
         return new InMemoryHistoryManager();
     }
 
+    public static HistoryManager getConcurrentHistory() {
+        return new ConcurrentHistoryManager();
+    }
+
     public static TaskManager getFileBackedTaskManager(String pathName) {
         return new FileBackedTaskManager(getDefaultHistory(), pathName);
     }
+
+    public static TaskManager getFileBackedTaskManager(String pathName, PersistenceSettings settings) {
+        return new FileBackedTaskManager(getDefaultHistory(), pathName, settings);
+    }
+
+    public static TaskManager getFileBackedTaskManager(String pathName, DurabilityMode durabilityMode) {
+        return getFileBackedTaskManager(pathName, new PersistenceSettings(durabilityMode, CompactionPolicy.defaults()));
+    }
 }
@@ -0,0 +1,239 @@
+package manager;
+
+import exception.ManagerSaveException;
+import model.TaskStatus;
+import model.TaskType;
+import model.TaskView;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Снимок задач, который читается через отображение файла в память (FileChannel.map). Открытие не читает записи:
+ * страницы файла подгружаются ОС при обращении, поэтому по id можно читать сразу после открытия.
+ * close() отпускает отображение: явно освободить его Java не позволяет, память возвращается при сборке мусора,
+ * а до тех пор отображение держит старую версию файла, даже если снимок уже заменен переименованием.
+ * <pre>
+ * заголовок (32 байта): "JKMS", версия, lastId, количество записей, смещение индекса, смещение строк
+ * записи (по 48 байт): id, тип, статус, epicId, начало и продолжительность в мс, смещение и длины строк
+ * индекс (по 8 байт):  пары id - номер записи, отсортированные по id
+ * строки:              название и описание каждой записи подряд в UTF-8
+ * </pre>
+ */
+public class MappedTaskStore implements AutoCloseable {
+    static final byte[] MAGIC = {'J', 'K', 'M', 'S'};
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int RECORD_SIZE = 48;
+    private static final int INDEX_ENTRY_SIZE = 8;
+    private static final int NO_EPIC = Integer.MIN_VALUE;
+    private static final long NO_START_TIME = Long.MIN_VALUE;
+    private static final int NULL_STRING = -1;
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private volatile MappedByteBuffer buffer; // null - хранилище закрыто
+    private final int lastId;
+    private final int size;
+    private final long indexOffset;
+    private final long stringsOffset;
+
+    private MappedTaskStore(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(0, magic);
+
+        if (!Arrays.equals(magic, MAGIC) || buffer.getInt(4) != VERSION) {
+            throw new ManagerSaveException("Файл не является снимком задач для отображения в память");
+        }
+
+        lastId = buffer.getInt(8);
+        size = buffer.getInt(12);
+        indexOffset = buffer.getLong(16);
+        stringsOffset = buffer.getLong(24);
+    }
+
+    public static MappedTaskStore open(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new ManagerSaveException("Снимок больше 2 ГБ не может быть отображен в память");
+            }
+            return new MappedTaskStore(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка открытия снимка: " + e.getMessage());
+        }
+    }
+
+    static boolean isMappedStore(File file) {
+        byte[] magic = new byte[MAGIC.length];
+
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            return in.readNBytes(magic, 0, magic.length) == magic.length && Arrays.equals(magic, MAGIC);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public int getLastId() {
+        return lastId;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Запись по порядковому номеру в области записей
+    public TaskView get(int index) {
+        MappedByteBuffer buffer = this.buffer; // ссылка в потоке чтения сохраняет отображение и после close()
+
+        if (buffer == null) {
+            throw new IllegalStateException("Снимок закрыт");
+        }
+        return get(buffer, index);
+    }
+
+    // Запись по id или null, в том числе после закрытия хранилища; поиск - двоичный по индексу
+    public TaskView find(int id) {
+        MappedByteBuffer buffer = this.buffer;
+        if (buffer == null) return null;
+
+        int low = 0;
+        int high = size - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int position = (int) (indexOffset + (long) middle * INDEX_ENTRY_SIZE);
+            int middleId = buffer.getInt(position);
+
+            if (middleId < id) {
+                low = middle + 1;
+            } else if (middleId > id) {
+                high = middle - 1;
+            } else {
+                return get(buffer, buffer.getInt(position + 4));
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public void close() {
+        buffer = null;
+    }
+
+    public static void write(OutputStream out, List<TaskView> tasks, int lastId) throws IOException {
+        byte[][] titles = new byte[tasks.size()][];
+        byte[][] descriptions = new byte[tasks.size()][];
+        long[] index = new long[tasks.size()]; // id в старших 32 битах, номер записи - в младших
+        long stringsLength = 0;
+
+        for (int i = 0; i < tasks.size(); i++) {
+            TaskView task = tasks.get(i);
+            titles[i] = task.title() == null ? null : task.title().getBytes(StandardCharsets.UTF_8);
+            descriptions[i] = task.description() == null ? null : task.description().getBytes(StandardCharsets.UTF_8);
+            stringsLength += length(titles[i]) + length(descriptions[i]);
+            index[i] = ((long) task.id() << 32) | i;
+        }
+
+        Arrays.sort(index);
+
+        long indexOffset = HEADER_SIZE + (long) tasks.size() * RECORD_SIZE;
+        long stringsOffset = indexOffset + (long) tasks.size() * INDEX_ENTRY_SIZE;
+
+        if (stringsOffset + stringsLength > Integer.MAX_VALUE) {
+            throw new ManagerSaveException("Снимок больше 2 ГБ не может быть отображен в память");
+        }
+
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.write(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(lastId);
+        data.writeInt(tasks.size());
+        data.writeLong(indexOffset);
+        data.writeLong(stringsOffset);
+
+        long stringPosition = 0;
+
+        for (int i = 0; i < tasks.size(); i++) {
+            TaskView task = tasks.get(i);
+
+            data.writeInt(task.id());
+            data.writeByte(task.type().ordinal());
+            data.writeByte(task.status().ordinal());
+            data.writeShort(0);
+            data.writeInt(task.epicId() == null ? NO_EPIC : task.epicId());
+            data.writeLong(task.startTime() == null ? NO_START_TIME : task.startTime().toInstant(ZoneOffset.UTC).toEpochMilli());
+            data.writeLong(task.duration() == null ? 0 : task.duration().toMillis());
+            data.writeLong(stringPosition);
+            data.writeInt(titles[i] == null ? NULL_STRING : titles[i].length);
+            data.writeInt(descriptions[i] == null ? NULL_STRING : descriptions[i].length);
+            data.writeInt(0);
+
+            stringPosition += length(titles[i]) + length(descriptions[i]);
+        }
+
+        for (long entry : index) {
+            data.writeInt((int) (entry >> 32));
+            data.writeInt((int) entry);
+        }
+
+        for (int i = 0; i < tasks.size(); i++) {
+            if (titles[i] != null) data.write(titles[i]);
+            if (descriptions[i] != null) data.write(descriptions[i]);
+        }
+
+        data.flush();
+    }
+
+    private TaskView get(MappedByteBuffer buffer, int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return readRecord(buffer, HEADER_SIZE + (long) index * RECORD_SIZE);
+    }
+
+    private TaskView readRecord(MappedByteBuffer buffer, long offset) {
+        int position = (int) offset;
+        int id = buffer.getInt(position);
+        TaskType type = TYPES[buffer.get(position + 4)];
+        TaskStatus status = STATUSES[buffer.get(position + 5)];
+        int epicId = buffer.getInt(position + 8);
+        long startMillis = buffer.getLong(position + 12);
+        long durationMillis = buffer.getLong(position + 20);
+        long stringPosition = stringsOffset + buffer.getLong(position + 28);
+        int titleLength = buffer.getInt(position + 36);
+        int descriptionLength = buffer.getInt(position + 40);
+
+        String title = readString(buffer, stringPosition, titleLength);
+        String description = readString(buffer, stringPosition + Math.max(titleLength, 0), descriptionLength);
+
+        return new TaskView(id, title, description, status, type, Duration.ofMillis(durationMillis),
+                startMillis == NO_START_TIME ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(startMillis), ZoneOffset.UTC),
+                epicId == NO_EPIC ? null : epicId, null, null);
+    }
+
+    private static String readString(MappedByteBuffer buffer, long position, int length) {
+        if (length == NULL_STRING) return null;
+
+        byte[] bytes = new byte[length];
+        buffer.get((int) position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+}
@@ -0,0 +1,87 @@
+package manager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Курсоры постраничного чтения. Для клиента курсор непрозрачен (Base64 без заполнения), внутри это вид курсора
+ * и позиция последнего отданного элемента: id, время начала и id, либо номер элемента в списке.
+ */
+final class PageCursor {
+    private static final String BY_ID = "id";
+    private static final String BY_START_TIME = "start";
+    private static final String BY_POSITION = "pos";
+    private static final String SEPARATOR = "|";
+
+    private PageCursor() {
+    }
+
+    record StartTimeKey(LocalDateTime startTime, int id) {
+    }
+
+    static String ofId(int id) {
+        return encode(BY_ID + SEPARATOR + id);
+    }
+
+    static String ofStartTime(LocalDateTime startTime, int id) {
+        return encode(BY_START_TIME + SEPARATOR + startTime + SEPARATOR + id);
+    }
+
+    static String ofPosition(int position) {
+        return encode(BY_POSITION + SEPARATOR + position);
+    }
+
+    static int decodeId(String cursor) {
+        return parseInt(decode(cursor, BY_ID, 2)[1], cursor);
+    }
+
+    static StartTimeKey decodeStartTime(String cursor) {
+        String[] parts = decode(cursor, BY_START_TIME, 3);
+
+        try {
+            return new StartTimeKey(LocalDateTime.parse(parts[1]), parseInt(parts[2], cursor));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Некорректный курсор: " + cursor);
+        }
+    }
+
+    static int decodePosition(String cursor) {
+        int position = parseInt(decode(cursor, BY_POSITION, 2)[1], cursor);
+
+        if (position < 0) {
+            throw new IllegalArgumentException("Некорректный курсор: " + cursor);
+        }
+
+        return position;
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Ошибка разбора числа внутри курсора сообщается как неверный курсор, а не как NumberFormatException
+    private static int parseInt(String value, String cursor) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректный курсор: " + cursor);
+        }
+    }
+
+    private static String[] decode(String cursor, String kind, int partsCount) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split("\\" + SEPARATOR);
+
+            if (parts.length == partsCount && parts[0].equals(kind)) {
+                return parts;
+            }
+        } catch (IllegalArgumentException e) {
+            // не Base64
+        }
+
+        throw new IllegalArgumentException("Некорректный курсор: " + cursor);
+    }
+}
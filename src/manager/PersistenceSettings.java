@@ -0,0 +1,54 @@
+package manager;
+
+/**
+ * Настройки хранения FileBackedTaskManager. maxPendingRecords ограничивает отставание журнала
+ * в режиме ASYNC: при заполнении очереди вызов ждет, пока фоновый поток запишет накопленное.
+ * compressed включает GZIP-сжатие снимков CSV, BINARY и сегментов SEGMENTED, а также закрытых журналов,
+ * оставшихся на диске; формат MAPPED не сжимается, т.к. читается через отображение файла в память.
+ * Положительный descriptionCacheSize выносит описания задач из памяти в файл рядом со снимком: они читаются
+ * по запросу одной задачи (последние descriptionCacheSize держатся в кэше), а списки, история и приоритеты
+ * отдаются без описаний. При 0 описания хранятся в памяти вместе с задачами.
+ */
+public record PersistenceSettings(DurabilityMode durabilityMode,
+                                  CompactionPolicy compactionPolicy,
+                                  int maxPendingRecords,
+                                  SnapshotFormat snapshotFormat,
+                                  boolean compressed,
+                                  int descriptionCacheSize) {
+    private static final int DEFAULT_MAX_PENDING_RECORDS = 1024;
+
+    public PersistenceSettings {
+        if (durabilityMode == null || compactionPolicy == null || snapshotFormat == null) {
+            throw new IllegalArgumentException("Режим записи, политика сжатия и формат снимка должны быть заданы");
+        }
+        if (maxPendingRecords <= 0) {
+            throw new IllegalArgumentException("Размер очереди журнала должен быть положительным");
+        }
+        if (descriptionCacheSize < 0) {
+            throw new IllegalArgumentException("Размер кэша описаний не может быть отрицательным");
+        }
+    }
+
+    public PersistenceSettings(DurabilityMode durabilityMode, CompactionPolicy compactionPolicy) {
+        this(durabilityMode, compactionPolicy, DEFAULT_MAX_PENDING_RECORDS, SnapshotFormat.CSV, false, 0);
+    }
+
+    public PersistenceSettings withSnapshotFormat(SnapshotFormat snapshotFormat) {
+        return new PersistenceSettings(durabilityMode, compactionPolicy, maxPendingRecords, snapshotFormat, compressed,
+                descriptionCacheSize);
+    }
+
+    public PersistenceSettings withCompression(boolean compressed) {
+        return new PersistenceSettings(durabilityMode, compactionPolicy, maxPendingRecords, snapshotFormat, compressed,
+                descriptionCacheSize);
+    }
+
+    public PersistenceSettings withLazyDescriptions(int descriptionCacheSize) {
+        return new PersistenceSettings(durabilityMode, compactionPolicy, maxPendingRecords, snapshotFormat, compressed,
+                descriptionCacheSize);
+    }
+
+    public static PersistenceSettings defaults() {
+        return new PersistenceSettings(DurabilityMode.NONE, CompactionPolicy.defaults());
+    }
+}
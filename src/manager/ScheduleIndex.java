@@ -0,0 +1,24 @@
+package manager;
+
+import model.Task;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface ScheduleIndex {
+    boolean isOverlapping(Task task);
+
+    boolean isOverlapping(Integer id, LocalDateTime startTime, LocalDateTime endTime);
+
+    void add(Task task);
+
+    Task remove(Integer id);
+
+    boolean contains(Integer id);
+
+    boolean isEmpty();
+
+    void clear();
+
+    Collection<Task> getTasks();
+}
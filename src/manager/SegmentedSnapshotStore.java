@@ -0,0 +1,160 @@
+package manager;
+
+import exception.ManagerSaveException;
+import model.TaskView;
+import util.CsvReader;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Снимок, разбитый на сегменты по диапазонам id: задачи с id из [n * segmentSize, (n + 1) * segmentSize)
+ * лежат в файле n.csv каталога &lt;файл&gt;.segments. Сам файл снимка - манифест с размером сегмента и lastId.
+ * Перезаписываются только переданные сегменты, поэтому стоимость записи пропорциональна числу изменений.
+ * Сегменты могут быть сжаты GZIP, манифест всегда пишется текстом, чтобы формат определялся по первой строке.
+ */
+class SegmentedSnapshotStore {
+    static final String SEGMENTS_KEY = "segments";
+    private static final String DIRECTORY_SUFFIX = ".segments";
+    private static final String SEGMENT_SUFFIX = ".csv";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File manifest;
+    private final Path directory;
+    private final String header;
+    private final Function<TaskView, String> lineFormatter;
+    private final boolean sync;
+    private final boolean compressed;
+
+    record Segment(int number, List<TaskView> tasks) {
+    }
+
+    SegmentedSnapshotStore(File manifest, String header, Function<TaskView, String> lineFormatter, boolean sync,
+                           boolean compressed) {
+        this.manifest = manifest;
+        this.directory = Path.of(manifest.getPath() + DIRECTORY_SUFFIX);
+        this.header = header;
+        this.lineFormatter = lineFormatter;
+        this.sync = sync;
+        this.compressed = compressed;
+    }
+
+    static int segmentOf(int id, int segmentSize) {
+        return Math.floorDiv(id, segmentSize);
+    }
+
+    static boolean isSegmentedSnapshot(File file) {
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            return line != null && line.startsWith(SEGMENTS_KEY + ",");
+        } catch (IOException | UncheckedIOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Записывает сегменты (пустой сегмент удаляет файл), затем манифест. При replaceAll удаляются
+     * и все сегменты, которых нет среди переданных.
+     */
+    void write(List<Segment> segments, boolean replaceAll, int segmentSize, int lastId, String lastIdKey) {
+        try {
+            Files.createDirectories(directory);
+            Set<String> written = new HashSet<>();
+
+            for (Segment segment : segments) {
+                Path target = directory.resolve(segment.number() + SEGMENT_SUFFIX);
+                written.add(target.getFileName().toString());
+
+                if (segment.tasks().isEmpty()) {
+                    Files.deleteIfExists(target);
+                    continue;
+                }
+
+                StringBuilder sb = new StringBuilder(header).append('\n');
+                for (TaskView task : segment.tasks()) {
+                    sb.append(lineFormatter.apply(task)).append('\n');
+                }
+                replace(target, sb.toString(), compressed);
+            }
+
+            if (replaceAll) {
+                try (Stream<Path> files = Files.list(directory)) {
+                    for (Path existing : files.toList()) {
+                        if (!written.contains(existing.getFileName().toString())) {
+                            Files.deleteIfExists(existing);
+                        }
+                    }
+                }
+            }
+
+            replace(manifest.toPath(), SEGMENTS_KEY + "," + segmentSize + "\n" + lastIdKey + "," + lastId + "\n", false);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка сохранения сегментов снимка");
+        }
+    }
+
+    // Передает каждую строку задач всех сегментов и возвращает lastId из манифеста
+    Integer load(Consumer<List<String>> recordConsumer, String lastIdKey) throws IOException {
+        Integer lastId = null;
+        List<String> fields = new ArrayList<>();
+
+        try (CsvReader reader = new CsvReader(Files.newBufferedReader(manifest.toPath(), StandardCharsets.UTF_8))) {
+            while (reader.readRecord(fields)) {
+                if (fields.size() == 2 && fields.getFirst().equals(lastIdKey)) {
+                    lastId = Integer.parseInt(fields.get(1));
+                }
+            }
+        }
+
+        if (!Files.isDirectory(directory)) return lastId;
+
+        List<Path> segmentFiles;
+        try (Stream<Path> files = Files.list(directory)) {
+            segmentFiles = files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX)).toList();
+        }
+
+        for (Path segmentFile : segmentFiles) {
+            try (CsvReader reader = new CsvReader(new InputStreamReader(CompressedFiles.openInput(segmentFile), StandardCharsets.UTF_8))) {
+                while (reader.readRecord(fields)) {
+                    if (fields.size() == 1 && fields.getFirst().isEmpty() || fields.getFirst().equals("id")) continue;
+                    recordConsumer.accept(fields);
+                }
+            }
+        }
+
+        return lastId;
+    }
+
+    private void replace(Path target, String content, boolean compress) throws IOException {
+        Path temp = Path.of(target + TEMP_SUFFIX);
+
+        try (FileOutputStream out = new FileOutputStream(temp.toFile())) {
+            if (compress) {
+                try (CompressedFiles.GzipMember gzip = CompressedFiles.compress(out)) {
+                    gzip.write(content.getBytes(StandardCharsets.UTF_8));
+                    gzip.finish();
+                }
+            } else {
+                out.write(content.getBytes(StandardCharsets.UTF_8));
+            }
+
+            if (sync) {
+                out.getFD().sync();
+            }
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
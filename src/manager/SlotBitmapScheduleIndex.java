@@ -0,0 +1,175 @@
+package manager;
+
+import model.Task;
+import util.IntHashMap;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Календарь занятости из слотов фиксированной длины в пределах горизонта планирования.
+ * Если все слоты интервала свободны, пересечения нет и проверка сводится к битовым операциям.
+ * Если хотя бы один слот занят (или интервал выходит за горизонт), выполняется точная проверка
+ * по {@link IntervalScheduleIndex}, так как в одном слоте могут соседствовать две задачи.
+ */
+public class SlotBitmapScheduleIndex implements ScheduleIndex {
+    public static final Duration DEFAULT_SLOT_DURATION = Duration.ofMinutes(15);
+
+    private final IntervalScheduleIndex intervalIndex = new IntervalScheduleIndex();
+    private final IntHashMap<Long> bookedSlotsById = new IntHashMap<>();
+    private final LocalDateTime planningStart;
+    private final Duration slotDuration;
+    private final int slotCount;
+    private final long[] slots;
+
+    public SlotBitmapScheduleIndex(LocalDateTime planningStart, Duration planningHorizon, Duration slotDuration) {
+        if (slotDuration.isNegative() || slotDuration.isZero()) {
+            throw new IllegalArgumentException("Длительность слота должна быть положительной");
+        }
+
+        long count = planningHorizon.dividedBy(slotDuration);
+
+        if (count <= 0 || count > Integer.MAX_VALUE - Long.SIZE) {
+            throw new IllegalArgumentException("Некорректный горизонт планирования: " + planningHorizon);
+        }
+
+        this.planningStart = planningStart;
+        this.slotDuration = slotDuration;
+        this.slotCount = (int) count;
+        this.slots = new long[(slotCount + Long.SIZE - 1) / Long.SIZE];
+    }
+
+    public SlotBitmapScheduleIndex(LocalDateTime planningStart, Duration planningHorizon) {
+        this(planningStart, planningHorizon, DEFAULT_SLOT_DURATION);
+    }
+
+    @Override
+    public boolean isOverlapping(Task task) {
+        return isOverlapping(task.getId(), task.getStartTime(), task.getEndTime());
+    }
+
+    @Override
+    public boolean isOverlapping(Integer id, LocalDateTime startTime, LocalDateTime endTime) {
+        long first = toSlot(startTime);
+        long last = toSlot(endTime);
+
+        if (first >= 0 && last < slotCount && isFree((int) first, (int) last)) {
+            return false;
+        }
+
+        return intervalIndex.isOverlapping(id, startTime, endTime);
+    }
+
+    @Override
+    public void add(Task task) {
+        remove(task.getId());
+        intervalIndex.add(task);
+
+        long first = Math.max(toSlot(task.getStartTime()), 0);
+        long last = Math.min(toSlot(task.getEndTime()), slotCount - 1);
+
+        if (first <= last) {
+            setSlots((int) first, (int) last, true);
+            bookedSlotsById.put(task.getId(), first << Integer.SIZE | last);
+        }
+    }
+
+    @Override
+    public Task remove(Integer id) {
+        Task task = intervalIndex.remove(id);
+        Long booked = id == null ? null : bookedSlotsById.remove(id);
+
+        if (booked != null) {
+            int first = (int) (booked >>> Integer.SIZE);
+            int last = (int) (long) booked;
+
+            // Крайние слоты могут быть заняты соседними задачами, их освобождаем только если соседей нет
+            if (first < last - 1) {
+                setSlots(first + 1, last - 1, false);
+            }
+            releaseIfUnused(first);
+            releaseIfUnused(last);
+        }
+
+        return task;
+    }
+
+    @Override
+    public boolean contains(Integer id) {
+        return intervalIndex.contains(id);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return intervalIndex.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        intervalIndex.clear();
+        bookedSlotsById.clear();
+        Arrays.fill(slots, 0L);
+    }
+
+    @Override
+    public Collection<Task> getTasks() {
+        return intervalIndex.getTasks();
+    }
+
+    private void releaseIfUnused(int slot) {
+        LocalDateTime slotStart = planningStart.plus(slotDuration.multipliedBy(slot));
+        LocalDateTime slotEnd = slotStart.plus(slotDuration).minusNanos(1);
+
+        if (!intervalIndex.isOverlapping(null, slotStart, slotEnd)) {
+            setSlots(slot, slot, false);
+        }
+    }
+
+    private long toSlot(LocalDateTime dateTime) {
+        if (dateTime.isBefore(planningStart)) return -1;
+
+        return Duration.between(planningStart, dateTime).dividedBy(slotDuration);
+    }
+
+    private boolean isFree(int first, int last) {
+        int firstWord = first >>> 6;
+        int lastWord = last >>> 6;
+
+        for (int word = firstWord; word <= lastWord; word++) {
+            if ((slots[word] & mask(word, first, last)) != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void setSlots(int first, int last, boolean busy) {
+        int firstWord = first >>> 6;
+        int lastWord = last >>> 6;
+
+        for (int word = firstWord; word <= lastWord; word++) {
+            if (busy) {
+                slots[word] |= mask(word, first, last);
+            } else {
+                slots[word] &= ~mask(word, first, last);
+            }
+        }
+    }
+
+    private static long mask(int word, int first, int last) {
+        long mask = -1L;
+
+        if (word == first >>> 6) {
+            mask &= -1L << first;
+        }
+
+        if (word == last >>> 6) {
+            mask &= -1L >>> (Long.SIZE - 1 - (last & 63));
+        }
+
+        return mask;
+    }
+}
@@ -0,0 +1,8 @@
+package manager;
+
+public enum SnapshotFormat {
+    CSV,   // текстовый формат, совместимый с прежними версиями файла
+    BINARY, // двоичный формат BinarySnapshotWriter, компактнее и быстрее при загрузке
+    MAPPED,   // записи фиксированной длины MappedTaskStore, читаются через отображение файла в память
+    SEGMENTED // CSV сегменты по диапазонам id (SegmentedSnapshotStore), перезаписываются только измененные
+}
@@ -3,6 +3,9 @@ package manager;
 import model.Epic;
 import model.Subtask;
 import model.Task;
+import model.TaskType;
+import model.TaskView;
+import model.ViewPage;
 
 import java.util.List;
 
@@ -48,4 +51,38 @@ public interface TaskManager {
     List<Task> getHistory();
 
     List<Task> getPrioritizedTasks();
+
+    TaskView getTaskView(int id);
+
+    TaskView getEpicView(int id);
+
+    TaskView getSubtaskView(int id);
+
+    List<TaskView> getTaskViews();
+
+    List<TaskView> getEpicViews();
+
+    List<TaskView> getSubtaskViews();
+
+    List<TaskView> getPrioritizedTaskViews();
+
+    List<TaskView> getHistoryViews();
+
+    // Страницы списков: cursor - значение nextCursor предыдущей страницы или null для первой
+    ViewPage getTaskViewPage(String cursor, int limit);
+
+    ViewPage getEpicViewPage(String cursor, int limit);
+
+    ViewPage getSubtaskViewPage(String cursor, int limit);
+
+    ViewPage getPrioritizedTaskViewPage(String cursor, int limit);
+
+    ViewPage getHistoryViewPage(String cursor, int limit);
+
+    // Номер последнего изменения задач любого типа; растет монотонно, просмотры его не меняют.
+    // Номера разных экземпляров менеджера (в том числе после перезапуска) не сравнимы и не совпадают
+    long getVersion();
+
+    // Номер последнего изменения, затронувшего хранилище указанного типа
+    long getVersion(TaskType type);
 }
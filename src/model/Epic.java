@@ -1,45 +1,97 @@
 package model;
 
+import util.IntHashMap;
+import util.IntHashSet;
+
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.HashSet;
+import java.util.NavigableMap;
 import java.util.Set;
+import java.util.TreeMap;
 
 public class Epic extends Task {
-    private Set<Integer> subtasksId;
+    private IntHashSet subtasksId;
     private LocalDateTime endTime;
+    private transient IntHashMap<AccountedSubtask> accountedSubtasks;
+    private transient int[] subtasksCountByStatus;
+    private transient NavigableMap<LocalDateTime, Integer> subtasksStartTimes;
+    private transient NavigableMap<LocalDateTime, Integer> subtasksEndTimes;
+    private transient Duration subtasksDuration;
 
     public Epic(String title, String description) {
         super(title, description, null, Duration.ZERO);
-        subtasksId = new HashSet<>();
+        subtasksId = new IntHashSet();
         setType(TaskType.EPIC);
     }
 
     public Epic(Epic epic) {
         super(epic);
-        subtasksId = new HashSet<>(epic.subtasksId);
+        subtasksId = new IntHashSet(epic.subtasksId);
         endTime = epic.endTime;
     }
 
     public Epic(Integer id, String title, String description, TaskStatus status, TaskType type, Set<Integer> subtasks, LocalDateTime startTime, Duration duration) {
         super(id, title, description, status, type, startTime, duration);
-        this.subtasksId = subtasks;
+        this.subtasksId = subtasks == null ? new IntHashSet() : new IntHashSet(subtasks);
     }
 
     public void addOrUpdateSubtask(Subtask subtask) {
         subtasksId.add(subtask.getId());
+        ensureAccounting();
+
+        AccountedSubtask accounted = new AccountedSubtask(subtask.getStatus(), subtask.getStartTime(),
+                subtask.getStartTime() == null ? null : subtask.getEndTime(), subtask.getDuration());
+
+        unaccount(accountedSubtasks.put(subtask.getId(), accounted));
+        account(accounted);
     }
 
-    public Set<Integer> getSubtasksId() {
+    public IntHashSet getSubtasksId() {
         return subtasksId;
     }
 
     public void setSubtasks(Set<Integer> subtasksId) {
-        this.subtasksId = subtasksId;
+        this.subtasksId = new IntHashSet(subtasksId);
+        resetAccounting();
     }
 
     public void removeSubtask(Subtask subtask) {
         subtasksId.remove(subtask.getId());
+        ensureAccounting();
+        unaccount(accountedSubtasks.remove(subtask.getId()));
+    }
+
+    public void clearSubtasks() {
+        subtasksId = new IntHashSet();
+        resetAccounting();
+    }
+
+    public int getSubtasksCount(TaskStatus status) {
+        return subtasksCountByStatus == null ? 0 : subtasksCountByStatus[status.ordinal()];
+    }
+
+    public TaskStatus calculateStatus() {
+        int subtasksCount = accountedSubtasks == null ? 0 : accountedSubtasks.size();
+
+        if (subtasksCount == 0 || getSubtasksCount(TaskStatus.NEW) == subtasksCount) {
+            return TaskStatus.NEW;
+        } else if (getSubtasksCount(TaskStatus.DONE) == subtasksCount) {
+            return TaskStatus.DONE;
+        } else {
+            return TaskStatus.IN_PROGRESS;
+        }
+    }
+
+    public LocalDateTime calculateStartTime() {
+        return subtasksStartTimes == null || subtasksStartTimes.isEmpty() ? null : subtasksStartTimes.firstKey();
+    }
+
+    public LocalDateTime calculateEndTime() {
+        return subtasksEndTimes == null || subtasksEndTimes.isEmpty() ? null : subtasksEndTimes.lastKey();
+    }
+
+    public Duration calculateDuration() {
+        return subtasksDuration == null ? Duration.ZERO : subtasksDuration;
     }
 
     @Override
@@ -51,6 +103,50 @@ public class Epic extends Task {
         this.endTime = endTime;
     }
 
+    private void account(AccountedSubtask subtask) {
+        subtasksCountByStatus[subtask.status().ordinal()]++;
+
+        if (subtask.startTime() != null) {
+            subtasksStartTimes.merge(subtask.startTime(), 1, Integer::sum);
+            subtasksEndTimes.merge(subtask.endTime(), 1, Integer::sum);
+            subtasksDuration = subtasksDuration.plus(subtask.duration());
+        }
+    }
+
+    private void unaccount(AccountedSubtask subtask) {
+        if (subtask == null) return;
+
+        subtasksCountByStatus[subtask.status().ordinal()]--;
+
+        if (subtask.startTime() != null) {
+            decrement(subtasksStartTimes, subtask.startTime());
+            decrement(subtasksEndTimes, subtask.endTime());
+            subtasksDuration = subtasksDuration.minus(subtask.duration());
+        }
+    }
+
+    private static void decrement(NavigableMap<LocalDateTime, Integer> multiset, LocalDateTime key) {
+        multiset.computeIfPresent(key, (dateTime, count) -> count == 1 ? null : count - 1);
+    }
+
+    private void ensureAccounting() {
+        if (accountedSubtasks == null) {
+            resetAccounting();
+        }
+    }
+
+    private void resetAccounting() {
+        accountedSubtasks = new IntHashMap<>();
+        subtasksCountByStatus = new int[TaskStatus.values().length];
+        subtasksStartTimes = new TreeMap<>();
+        subtasksEndTimes = new TreeMap<>();
+        subtasksDuration = Duration.ZERO;
+    }
+
+    // Состояние подзадачи запоминается на момент учета, т.к. объект подзадачи может быть изменен до вызова обновления
+    private record AccountedSubtask(TaskStatus status, LocalDateTime startTime, LocalDateTime endTime, Duration duration) {
+    }
+
     @Override
     public String toString() {
         return "Epic{" +
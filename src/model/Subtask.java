@@ -22,6 +22,11 @@ public class Subtask extends Task {
         this.epicId = epic.getId();
     }
 
+    public Subtask(Integer id, String title, String description, TaskStatus status, TaskType type, Integer epicId, LocalDateTime startTime, Duration duration) {
+        super(id, title, description, status, type, startTime, duration);
+        this.epicId = epicId;
+    }
+
     public Integer getEpicId() {
         return epicId;
     }
@@ -0,0 +1,63 @@
+package model;
+
+import util.IntHashSet;
+import util.SortedIntList;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Неизменяемое представление задачи, эпика или подзадачи для чтения. Его можно отдавать наружу без
+ * копирования, изменения выполняются только через методы менеджера. Поля, не относящиеся к типу
+ * (epicId у задачи, subtasksId и endTime у подзадачи), равны null и не попадают в JSON.
+ */
+public record TaskView(Integer id,
+                       String title,
+                       String description,
+                       TaskStatus status,
+                       TaskType type,
+                       Duration duration,
+                       LocalDateTime startTime,
+                       Integer epicId,
+                       List<Integer> subtasksId,
+                       LocalDateTime endTime) {
+
+    public static TaskView of(Task task) {
+        Integer epicId = null;
+        List<Integer> subtasksId = null;
+        LocalDateTime endTime = null;
+
+        if (task instanceof Subtask subtask) {
+            epicId = subtask.getEpicId();
+        } else if (task instanceof Epic epic) {
+            // сортируется при первом чтении, а не при каждом изменении подзадач эпика
+            subtasksId = SortedIntList.of(epic.getSubtasksId() == null ? new int[0] : epic.getSubtasksId().toIntArray());
+            endTime = epic.getEndTime();
+        }
+
+        return new TaskView(task.getId(), task.getTitle(), task.getDescription(), task.getStatus(), task.getType(),
+                task.getDuration(), task.getStartTime(), epicId, subtasksId, endTime);
+    }
+
+    public TaskView withDescription(String description) {
+        return new TaskView(id, title, description, status, type, duration, startTime, epicId, subtasksId, endTime);
+    }
+
+    public Task toTask() {
+        switch (type) {
+            case SUBTASK -> {
+                return new Subtask(id, title, description, status, type, epicId, startTime, duration);
+            }
+            case EPIC -> {
+                Epic epic = new Epic(id, title, description, status, type,
+                        subtasksId == null ? new IntHashSet() : new IntHashSet(subtasksId), startTime, duration);
+                epic.setEndTime(endTime);
+                return epic;
+            }
+            default -> {
+                return new Task(id, title, description, status, type, startTime, duration);
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Страница списка представлений. nextCursor передается в следующий запрос страницы, null - страница последняя.
+ */
+public record ViewPage(List<TaskView> items, String nextCursor) {
+}
@@ -0,0 +1,119 @@
+package util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+/**
+ * Потоковый разбор CSV без регулярных выражений. Поля в двойных кавычках могут содержать запятые,
+ * переводы строк и кавычки (удвоенные). Пробелы вокруг полей без кавычек отбрасываются,
+ * как это делал прежний разбор через split.
+ */
+public class CsvReader implements Closeable {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder field = new StringBuilder();
+    private int position;
+    private int limit;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Читает следующую запись в переданный список (он очищается). Пустая строка дает одно пустое поле.
+     * Возвращает false, если записей больше нет.
+     */
+    public boolean readRecord(List<String> fields) throws IOException {
+        fields.clear();
+
+        int c = read();
+
+        if (c == -1) return false;
+
+        while (true) {
+            field.setLength(0);
+            boolean quoted = false;
+
+            while (c == ' ' || c == '\t') {
+                c = read();
+            }
+
+            if (c == '"') {
+                quoted = true;
+                c = read();
+
+                while (c != -1) {
+                    if (c == '"') {
+                        c = read();
+                        if (c != '"') break; // закрывающая кавычка
+                    }
+                    field.append((char) c);
+                    c = read();
+                }
+
+                while (c == ' ' || c == '\t') {
+                    c = read();
+                }
+            }
+
+            // у поля без кавычек - все значение, у поля в кавычках - символы после закрывающей кавычки
+            while (c != -1 && c != ',' && c != '\n' && c != '\r') {
+                field.append((char) c);
+                c = read();
+            }
+
+            fields.add(quoted ? field.toString() : trimTrailing(field));
+
+            if (c == ',') {
+                c = read();
+                continue;
+            }
+
+            if (c == '\r' && peek() == '\n') {
+                read();
+            }
+
+            return true;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static String trimTrailing(StringBuilder value) {
+        int end = value.length();
+
+        while (end > 0 && (value.charAt(end - 1) == ' ' || value.charAt(end - 1) == '\t')) {
+            end--;
+        }
+
+        return value.substring(0, end);
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) return -1;
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) return -1;
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        limit = reader.read(buffer, 0, buffer.length);
+        position = 0;
+
+        if (limit <= 0) {
+            limit = 0;
+            return false;
+        }
+        return true;
+    }
+}
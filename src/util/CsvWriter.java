@@ -0,0 +1,43 @@
+package util;
+
+/**
+ * Запись полей CSV. Значение берется в кавычки только если без них оно не прочитается обратно
+ * (запятые, кавычки, переводы строк, пробелы по краям), поэтому обычные строки выглядят как раньше.
+ */
+public final class CsvWriter {
+    private CsvWriter() {
+    }
+
+    public static StringBuilder appendField(StringBuilder sb, Object value) {
+        String text = String.valueOf(value);
+
+        if (!needsQuotes(text)) {
+            return sb.append(text);
+        }
+
+        sb.append('"');
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') sb.append('"');
+            sb.append(c);
+        }
+
+        return sb.append('"');
+    }
+
+    private static boolean needsQuotes(String text) {
+        if (text.isEmpty()) return false;
+
+        if (Character.isWhitespace(text.charAt(0)) || Character.isWhitespace(text.charAt(text.length() - 1))) {
+            return true;
+        }
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') return true;
+        }
+
+        return false;
+    }
+}
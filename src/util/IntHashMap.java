@@ -0,0 +1,224 @@
+package util;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Хеш-таблица с ключами int и открытой адресацией (линейное пробирование). В отличие от
+ * HashMap&lt;Integer, V&gt; не создает объектов Integer и Entry на каждую запись.
+ * Пустая ячейка обозначается значением null, поэтому null значения не поддерживаются.
+ */
+public class IntHashMap<V> {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+
+    public IntHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public V get(int key) {
+        int slot = findSlot(key);
+        return slot < 0 ? null : value(slot);
+    }
+
+    public boolean containsKey(int key) {
+        return findSlot(key) >= 0;
+    }
+
+    public V put(int key, V value) {
+        Objects.requireNonNull(value, "IntHashMap не поддерживает null значения");
+
+        int slot = hash(key) & mask;
+
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V previous = value(slot);
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+
+        if (++size * 2 > values.length) {
+            resize(values.length * 2);
+        }
+
+        return null;
+    }
+
+    public V remove(int key) {
+        int slot = findSlot(key);
+
+        if (slot < 0) return null;
+
+        V previous = value(slot);
+        deleteSlot(slot);
+        size--;
+
+        return previous;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    public int[] keys() {
+        int[] result = new int[size];
+        int index = 0;
+
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                result[index++] = keys[slot];
+            }
+        }
+
+        return result;
+    }
+
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new ValueIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public void forEach(Consumer<? super V> action) {
+                for (Object value : values) {
+                    if (value != null) {
+                        action.accept(cast(value));
+                    }
+                }
+            }
+        };
+    }
+
+    private int findSlot(int key) {
+        int slot = hash(key) & mask;
+
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    // Удаление со сдвигом следующих элементов цепочки, чтобы не оставлять "надгробий"
+    private void deleteSlot(int slot) {
+        int gap = slot;
+        int current = slot;
+
+        while (true) {
+            current = (current + 1) & mask;
+
+            if (values[current] == null) break;
+
+            int home = hash(keys[current]) & mask;
+
+            if (((current - home) & mask) >= ((current - gap) & mask)) {
+                keys[gap] = keys[current];
+                values[gap] = values[current];
+                gap = current;
+            }
+        }
+
+        values[gap] = null;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+
+        allocate(capacity);
+
+        for (int slot = 0; slot < oldValues.length; slot++) {
+            if (oldValues[slot] != null) {
+                int newSlot = hash(oldKeys[slot]) & mask;
+
+                while (values[newSlot] != null) {
+                    newSlot = (newSlot + 1) & mask;
+                }
+
+                keys[newSlot] = oldKeys[slot];
+                values[newSlot] = oldValues[slot];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    private V value(int slot) {
+        return cast(values[slot]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V cast(Object value) {
+        return (V) value;
+    }
+
+    static int hash(int key) {
+        return key ^ (key >>> 16);
+    }
+
+    static int tableSizeFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize * 2 - 1, 1)) << 1;
+        return Math.max(capacity, 2);
+    }
+
+    private class ValueIterator implements Iterator<V> {
+        private int next = advance(0);
+
+        @Override
+        public boolean hasNext() {
+            return next < values.length;
+        }
+
+        @Override
+        public V next() {
+            if (!hasNext()) throw new NoSuchElementException();
+
+            V value = value(next);
+            next = advance(next + 1);
+            return value;
+        }
+
+        private int advance(int slot) {
+            while (slot < values.length && values[slot] == null) {
+                slot++;
+            }
+            return slot;
+        }
+    }
+}
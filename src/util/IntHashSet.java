@@ -0,0 +1,205 @@
+package util;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * Множество int с открытой адресацией. Реализует Set&lt;Integer&gt; для совместимости
+ * (в том числе с Gson), но внутри хранит значения без упаковки в Integer.
+ */
+public final class IntHashSet extends AbstractSet<Integer> {
+    private static final int FREE = Integer.MIN_VALUE;
+
+    private int[] slots;
+    private int size;
+    private int mask;
+    private boolean containsFree; // значение, совпадающее с маркером пустой ячейки, хранится отдельно
+
+    public IntHashSet() {
+        this(8);
+    }
+
+    public IntHashSet(int expectedSize) {
+        allocate(IntHashMap.tableSizeFor(expectedSize));
+    }
+
+    public IntHashSet(Collection<Integer> values) {
+        this(values.size());
+        addAll(values);
+    }
+
+    public boolean add(int value) {
+        if (value == FREE) {
+            if (containsFree) return false;
+            containsFree = true;
+            size++;
+            return true;
+        }
+
+        int slot = IntHashMap.hash(value) & mask;
+
+        while (slots[slot] != FREE) {
+            if (slots[slot] == value) return false;
+            slot = (slot + 1) & mask;
+        }
+
+        slots[slot] = value;
+
+        if (++size * 2 > slots.length) {
+            resize(slots.length * 2);
+        }
+
+        return true;
+    }
+
+    public boolean contains(int value) {
+        return value == FREE ? containsFree : findSlot(value) >= 0;
+    }
+
+    public boolean remove(int value) {
+        if (value == FREE) {
+            if (!containsFree) return false;
+            containsFree = false;
+            size--;
+            return true;
+        }
+
+        int slot = findSlot(value);
+
+        if (slot < 0) return false;
+
+        deleteSlot(slot);
+        size--;
+        return true;
+    }
+
+    public void forEachInt(IntConsumer action) {
+        if (containsFree) {
+            action.accept(FREE);
+        }
+
+        for (int value : slots) {
+            if (value != FREE) {
+                action.accept(value);
+            }
+        }
+    }
+
+    public int[] toIntArray() {
+        int[] result = new int[size];
+        int[] index = {0};
+        forEachInt(value -> result[index[0]++] = value);
+        return result;
+    }
+
+    @Override
+    public boolean add(Integer value) {
+        return add(value.intValue());
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        return value instanceof Integer && contains(((Integer) value).intValue());
+    }
+
+    @Override
+    public boolean remove(Object value) {
+        return value instanceof Integer && remove(((Integer) value).intValue());
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(slots, FREE);
+        containsFree = false;
+        size = 0;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        int[] values = toIntArray();
+
+        return new Iterator<>() {
+            private int next;
+            private boolean canRemove;
+
+            @Override
+            public boolean hasNext() {
+                return next < values.length;
+            }
+
+            @Override
+            public Integer next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                canRemove = true;
+                return values[next++];
+            }
+
+            @Override
+            public void remove() {
+                if (!canRemove) throw new IllegalStateException();
+                canRemove = false;
+                IntHashSet.this.remove(values[next - 1]);
+            }
+        };
+    }
+
+    private int findSlot(int value) {
+        int slot = IntHashMap.hash(value) & mask;
+
+        while (slots[slot] != FREE) {
+            if (slots[slot] == value) return slot;
+            slot = (slot + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    private void deleteSlot(int slot) {
+        int gap = slot;
+        int current = slot;
+
+        while (true) {
+            current = (current + 1) & mask;
+
+            if (slots[current] == FREE) break;
+
+            int home = IntHashMap.hash(slots[current]) & mask;
+
+            if (((current - home) & mask) >= ((current - gap) & mask)) {
+                slots[gap] = slots[current];
+                gap = current;
+            }
+        }
+
+        slots[gap] = FREE;
+    }
+
+    private void resize(int capacity) {
+        int[] oldSlots = slots;
+
+        allocate(capacity);
+
+        for (int value : oldSlots) {
+            if (value != FREE) {
+                int slot = IntHashMap.hash(value) & mask;
+
+                while (slots[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+
+                slots[slot] = value;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        slots = new int[capacity];
+        Arrays.fill(slots, FREE);
+        mask = capacity - 1;
+    }
+}
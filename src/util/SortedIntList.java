@@ -0,0 +1,57 @@
+package util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Неизменяемый список int, упорядоченный по возрастанию. Значения сортируются при первом обращении к элементам,
+ * поэтому создание списка стоит только копирования массива, а сортировка выполняется, если список кто-то читает.
+ */
+public final class SortedIntList extends AbstractList<Integer> implements RandomAccess {
+    private static final SortedIntList EMPTY = new SortedIntList(new int[0]);
+
+    private final int[] values;
+    private volatile int[] sorted; // null - значения еще не отсортированы
+
+    private SortedIntList(int[] values) {
+        this.values = values;
+    }
+
+    // Массив переходит во владение списка и не должен меняться вызывающим
+    public static SortedIntList of(int[] values) {
+        return values.length == 0 ? EMPTY : new SortedIntList(values);
+    }
+
+    @Override
+    public Integer get(int index) {
+        return getInt(index);
+    }
+
+    public int getInt(int index) {
+        return sorted()[index];
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Integer value && Arrays.binarySearch(sorted(), value) >= 0;
+    }
+
+    // Сортируется копия, чтобы читатели из разных потоков не видели массив в процессе сортировки
+    private int[] sorted() {
+        int[] result = sorted;
+
+        if (result == null) {
+            result = values.clone();
+            Arrays.sort(result);
+            sorted = result;
+        }
+
+        return result;
+    }
+}
@@ -2,17 +2,21 @@ package api;
 
 import exception.NotFoundException;
 import api.type_token.TaskListTypeToken;
+import model.Epic;
 import model.Task;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import static manager.TaskManagerTest.equalTasks;
 import static org.junit.jupiter.api.Assertions.*;
@@ -133,6 +137,120 @@ public class HttpTaskManagerTasksTest extends HttpTaskManagerTest {
         assertEquals(tasksFromManager.size(), taskFromHttp.size(), "Размер полученного и хранимого списков не равны");
     }
 
+    @Test
+    public void testGetTasks_ShouldStreamLargeListInChunks() throws IOException, InterruptedException {
+        for (int i = 0; i < 2000; i++) {
+            manager.addTask(new Task("Task " + i, "Описание, \"в кавычках\" " + i, null, duration));
+        }
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(BASIC_URL)).GET().build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), "Некорректный код успешного ответа");
+        assertEquals("chunked", response.headers().firstValue("Transfer-Encoding").orElse(null), "Список не передается частями");
+
+        List<Task> taskFromHttp = gson.fromJson(response.body(), new TaskListTypeToken().getType());
+
+        assertEquals(2000, taskFromHttp.size(), "Размер полученного и хранимого списков не равны");
+        assertEquals("Описание, \"в кавычках\" 1999", taskFromHttp.getLast().getDescription(), "Описание искажено");
+    }
+
+    @Test
+    public void testGetTasks_ShouldGzipLargeResponsesWhenAccepted() throws IOException, InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            manager.addTask(new Task("Task " + i, "Повторяющееся описание задачи", null, duration));
+        }
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(BASIC_URL))
+                .header("Accept-Encoding", "br;q=1.0, gzip;q=0.8").GET().build();
+
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, response.statusCode(), "Некорректный код успешного ответа");
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null), "Ответ не сжат");
+
+        String body;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        List<Task> taskFromHttp = gson.fromJson(body, new TaskListTypeToken().getType());
+
+        assertEquals(200, taskFromHttp.size(), "Размер полученного и хранимого списков не равны");
+        assertTrue(response.body().length < body.length() / 4, "Повторяющийся JSON сжат слабо");
+
+        request = HttpRequest.newBuilder().uri(URI.create(BASIC_URL + "/" + taskFromHttp.getFirst().getId()))
+                .header("Accept-Encoding", "gzip").GET().build();
+        HttpResponse<String> smallResponse = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertTrue(smallResponse.headers().firstValue("Content-Encoding").isEmpty(), "Короткий ответ не должен сжиматься");
+        assertEquals(taskFromHttp.getFirst().getTitle(), gson.fromJson(smallResponse.body(), Task.class).getTitle(),
+                "Короткий ответ искажен");
+
+        request = HttpRequest.newBuilder().uri(URI.create(BASIC_URL)).header("Accept-Encoding", "gzip;q=0").GET().build();
+        assertTrue(client.send(request, HttpResponse.BodyHandlers.ofString()).headers().firstValue("Content-Encoding").isEmpty(),
+                "Ответ сжат, хотя клиент отказался от gzip");
+    }
+
+    @Test
+    public void testGetTasks_ShouldReturnPagesByCursor() throws IOException, InterruptedException {
+        fillTasks(manager);
+        HttpClient client = HttpClient.newHttpClient();
+
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(BASIC_URL + "?limit=2")).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        List<Task> firstPage = gson.fromJson(response.body(), new TaskListTypeToken().getType());
+        String cursor = response.headers().firstValue("X-Next-Cursor").orElseThrow();
+
+        request = HttpRequest.newBuilder().uri(URI.create(BASIC_URL + "?limit=2&cursor=" + cursor)).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        List<Task> secondPage = gson.fromJson(response.body(), new TaskListTypeToken().getType());
+
+        assertEquals(List.of(1, 2), firstPage.stream().map(Task::getId).toList(), "Неверная первая страница");
+        assertEquals(List.of(3), secondPage.stream().map(Task::getId).toList(), "Неверная вторая страница");
+        assertTrue(response.headers().firstValue("X-Next-Cursor").isEmpty(), "У последней страницы не должно быть курсора");
+
+        request = HttpRequest.newBuilder().uri(URI.create(BASIC_URL + "?cursor=broken")).GET().build();
+        assertEquals(400, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode(), "Принят некорректный курсор");
+
+        // курсор в верном Base64, но с нечисловым id
+        request = HttpRequest.newBuilder().uri(URI.create(BASIC_URL + "?limit=2&cursor=aWR8eA")).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode(), "Принят курсор с нечисловым id");
+        assertTrue(response.body().contains("курсор"), "Ошибка курсора описана как ошибка limit");
+
+        request = HttpRequest.newBuilder().uri(URI.create(BASIC_URL + "?limit=two")).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode(), "Принят нечисловой limit");
+        assertTrue(response.body().contains("limit"), "Ошибка limit описана неверно");
+    }
+
+    @Test
+    public void testGetTasks_ShouldAnswerNotModifiedForMatchingETag() throws IOException, InterruptedException {
+        fillTasks(manager);
+        HttpClient client = HttpClient.newHttpClient();
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder().uri(URI.create(BASIC_URL)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        String etag = response.headers().firstValue("ETag").orElseThrow();
+
+        HttpRequest conditional = HttpRequest.newBuilder().uri(URI.create(BASIC_URL)).header("If-None-Match", etag).GET().build();
+        response = client.send(conditional, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(304, response.statusCode(), "Неизмененный список отправлен заново");
+        assertEquals("", response.body(), "Ответ 304 не должен содержать тело");
+
+        manager.addEpic(new Epic("Other Epic", "Changes epics only"));
+        assertEquals(304, client.send(conditional, HttpResponse.BodyHandlers.ofString()).statusCode(),
+                "Изменение эпиков сбросило ETag задач");
+
+        manager.removeTask(manager.getTasks().getFirst().getId());
+        response = client.send(conditional, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode(), "Измененный список не отправлен");
+        assertNotEquals(etag, response.headers().firstValue("ETag").orElseThrow(), "ETag не изменился после удаления");
+    }
+
     @Test
     public void testGetTasksFromEmptyList() throws IOException, InterruptedException {
         HttpClient client = HttpClient.newHttpClient();
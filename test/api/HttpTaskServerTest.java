@@ -0,0 +1,62 @@
+package api;
+
+import api.server.HttpTaskServer;
+import api.server.ServerSettings;
+import com.google.gson.Gson;
+import manager.Managers;
+import manager.TaskManager;
+import model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpTaskServerTest {
+
+    @Test
+    public void testVirtualThreads_ShouldServeParallelRequests() throws IOException {
+        TaskManager manager = Managers.getConcurrentTaskManager();
+        HttpTaskServer taskServer = new HttpTaskServer(manager, ServerSettings.defaults().withPort(0).withBacklog(64).withVirtualThreads());
+        Gson gson = taskServer.getGson();
+        taskServer.start();
+
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            URI url = URI.create("http://localhost:" + taskServer.getPort() + "/tasks");
+            LocalDateTime startTime = LocalDateTime.of(2024, 1, 1, 0, 0);
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+
+            for (int i = 0; i < 32; i++) {
+                Task task = new Task("Task " + i, "Parallel task", startTime.plusHours(i), Duration.ofMinutes(30));
+                HttpRequest request = HttpRequest.newBuilder().uri(url)
+                        .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(task))).build();
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+            }
+
+            for (CompletableFuture<HttpResponse<String>> response : responses) {
+                assertEquals(201, response.join().statusCode(), "Задача не добавлена");
+            }
+
+            assertEquals(32, manager.getTasks().size(), "Часть параллельных запросов потеряна");
+        } finally {
+            taskServer.stop();
+        }
+    }
+
+    @Test
+    public void testServerSettings_ShouldRejectInvalidValues() {
+        assertThrows(IllegalArgumentException.class, () -> ServerSettings.defaults().withPort(70000), "Принят некорректный порт");
+        assertThrows(IllegalArgumentException.class, () -> ServerSettings.defaults().withBacklog(-1), "Принята отрицательная очередь");
+        assertThrows(IllegalArgumentException.class, () -> ServerSettings.defaults().withFixedPool(0), "Принят пустой пул потоков");
+    }
+}
@@ -0,0 +1,65 @@
+package manager;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AtomicIdAllocatorTest {
+
+    @Test
+    void testNextId_ShouldReturnMonotonicIds() {
+        IdAllocator allocator = new AtomicIdAllocator();
+
+        assertEquals(1, allocator.nextId(), "Первый id должен быть равен 1");
+        assertEquals(2, allocator.nextId(), "id должны выдаваться по порядку");
+        assertEquals(2, allocator.getLastId(), "Не верно возвращен последний id");
+    }
+
+    @Test
+    void testRegister_ShouldSkipRegisteredIds() {
+        IdAllocator allocator = new AtomicIdAllocator(10);
+
+        allocator.register(20);
+        allocator.register(15);
+
+        assertEquals(21, allocator.nextId(), "Выдан id, не превышающий зарегистрированный");
+    }
+
+    @Test
+    void testReserve_ShouldReturnNonOverlappingBlocks() {
+        IdAllocator allocator = new AtomicIdAllocator();
+
+        int firstBlock = allocator.reserve(100);
+        int secondBlock = allocator.reserve(50);
+
+        assertEquals(1, firstBlock, "Не верно выделен первый блок");
+        assertEquals(101, secondBlock, "Блоки id пересекаются");
+        assertEquals(151, allocator.nextId(), "id выдан из зарезервированного блока");
+        assertThrows(IllegalArgumentException.class, () -> allocator.reserve(0), "Зарезервирован пустой блок");
+    }
+
+    @Test
+    void testNextId_ShouldReturnUniqueIdsFromDifferentThreads() throws InterruptedException {
+        IdAllocator allocator = new AtomicIdAllocator();
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        for (int i = 0; i < 4; i++) {
+            executor.submit(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    ids.add(allocator.nextId());
+                }
+            });
+        }
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS), "Потоки не завершились");
+        assertEquals(40_000, ids.size(), "Выданы повторяющиеся id");
+    }
+}
@@ -0,0 +1,83 @@
+package manager;
+
+import exception.ManagerSaveException;
+import model.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinarySnapshotTest {
+
+    @Test
+    void testWriteRead_ShouldRoundTripArbitraryTextAndTime() throws IOException {
+        List<TaskView> views = List.of(
+                new TaskView(1, "Title, with \"commas\"\nи переносом", null, TaskStatus.IN_PROGRESS, TaskType.TASK,
+                        Duration.ofMinutes(90).plusMillis(123), LocalDateTime.of(2024, 3, 1, 9, 30, 15, 250_000_000),
+                        null, null, null),
+                new TaskView(2, "", "Описание эпика", TaskStatus.NEW, TaskType.EPIC, Duration.ZERO, null,
+                        null, null, null),
+                new TaskView(3, "Subtask", "Description", TaskStatus.DONE, TaskType.SUBTASK, Duration.ofMinutes(15),
+                        LocalDateTime.of(1965, 1, 1, 0, 0), 2, null, null));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (BinarySnapshotWriter writer = new BinarySnapshotWriter(out)) {
+            writer.writeHeader(42, views.size());
+            for (TaskView view : views) {
+                writer.write(view);
+            }
+        }
+
+        List<TaskView> restored = new ArrayList<>();
+        int lastId;
+
+        try (BinarySnapshotReader reader = new BinarySnapshotReader(new ByteArrayInputStream(out.toByteArray()))) {
+            lastId = reader.getLastId();
+            while (reader.hasNext()) {
+                restored.add(reader.next());
+            }
+        }
+
+        assertEquals(42, lastId, "lastId не совпадает");
+        assertEquals(views, restored, "Записи снимка не совпадают после чтения");
+    }
+
+    @Test
+    void testReadNotSnapshot_ShouldThrowException() {
+        assertThrows(ManagerSaveException.class,
+                () -> new BinarySnapshotReader(new ByteArrayInputStream("id,type,name".getBytes())),
+                "Чтение не двоичного файла должно завершаться ошибкой");
+    }
+
+    @Test
+    void testFileBackedManagerWithBinarySnapshot_ShouldSaveAndLoad() throws IOException {
+        File file = File.createTempFile("binary", ".snapshot");
+        PersistenceSettings settings = PersistenceSettings.defaults().withSnapshotFormat(SnapshotFormat.BINARY);
+        FileBackedTaskManager manager = new FileBackedTaskManager(Managers.getDefaultHistory(), file.getPath(), settings);
+        LocalDateTime startTime = LocalDateTime.of(2024, 5, 1, 10, 0);
+
+        Epic epic = new Epic("Epic, с запятой", "Description");
+        manager.addEpic(epic);
+        Subtask subtask = new Subtask("Subtask", "Description", epic, startTime, Duration.ofMinutes(30));
+        subtask.setStatus(TaskStatus.DONE);
+        manager.addSubtask(subtask);
+        manager.save();
+
+        assertTrue(BinarySnapshotReader.isBinarySnapshot(file), "Снимок должен быть записан в двоичном формате");
+
+        TaskManager loaded = FileBackedTaskManager.loadFromFile(file, settings);
+
+        assertEquals("Epic, с запятой", loaded.getEpic(epic.getId()).getTitle(), "Название с запятой не сохранилось");
+        assertEquals(TaskStatus.DONE, loaded.getEpic(epic.getId()).getStatus(), "Статус эпика не пересчитан");
+        assertEquals(startTime, loaded.getSubtask(subtask.getId()).getStartTime(), "Время подзадачи не совпадает");
+    }
+}
@@ -0,0 +1,33 @@
+package manager;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactionPolicyTest {
+
+    @Test
+    void testIsDue_ShouldTriggerOnAnyThreshold() {
+        CompactionPolicy policy = new CompactionPolicy(100, 10, Duration.ofMinutes(1));
+
+        assertFalse(policy.isDue(99, 9, Duration.ofSeconds(59)), "Пороги не достигнуты");
+        assertTrue(policy.isDue(100, 1, Duration.ZERO), "Порог по размеру журнала не сработал");
+        assertTrue(policy.isDue(1, 10, Duration.ZERO), "Порог по количеству записей не сработал");
+        assertTrue(policy.isDue(1, 1, Duration.ofMinutes(1)), "Порог по времени не сработал");
+    }
+
+    @Test
+    void testIsDue_ShouldNotTriggerOnEmptyJournalOrDisabledThresholds() {
+        assertFalse(CompactionPolicy.defaults().isDue(0, 0, Duration.ofDays(1)), "Пустой журнал не нужно сворачивать");
+        assertFalse(CompactionPolicy.never().isDue(Long.MAX_VALUE, Integer.MAX_VALUE, Duration.ofDays(365)),
+                "Отключенные пороги не должны срабатывать");
+    }
+
+    @Test
+    void testNegativeThreshold_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> new CompactionPolicy(-1, 0, null),
+                "Отрицательный порог должен быть отклонен");
+    }
+}
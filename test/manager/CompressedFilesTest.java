@@ -0,0 +1,69 @@
+package manager;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedFilesTest {
+
+    @Test
+    void testOpenInput_ShouldReadPlainAndCompressedFilesAlike() throws IOException {
+        Path file = Files.createTempFile("plain", ".csv");
+        Files.writeString(file, "upsert,1\nremove,TASK,1\n");
+
+        assertFalse(CompressedFiles.isCompressed(file), "Несжатый файл распознан как сжатый");
+
+        CompressedFiles.compressInPlace(file);
+
+        assertTrue(CompressedFiles.isCompressed(file), "Файл не сжат");
+        assertEquals("upsert,1\nremove,TASK,1\n", read(file), "Содержимое сжатого файла искажено");
+    }
+
+    @Test
+    void testAppend_ShouldKeepEncodingOfTarget() throws IOException {
+        Path tail = Files.createTempFile("tail", ".csv");
+        Files.writeString(tail, "view,3\n");
+
+        Path compressed = Files.createTempFile("compressed", ".csv");
+        Files.writeString(compressed, "view,1\n");
+        CompressedFiles.compressInPlace(compressed);
+        CompressedFiles.append(compressed, tail);
+
+        Path plain = Files.createTempFile("plain", ".csv");
+        Files.writeString(plain, "view,2\n");
+        CompressedFiles.append(plain, tail);
+
+        assertEquals("view,1\nview,3\n", read(compressed), "Добавленный сжатый элемент не прочитан");
+        assertEquals("view,2\nview,3\n", Files.readString(plain), "К несжатому файлу добавлены сжатые данные");
+    }
+
+    @Test
+    void testCompress_ShouldLeaveUnderlyingStreamOpen() throws IOException {
+        Path file = Files.createTempFile("member", ".csv");
+
+        try (FileOutputStream out = new FileOutputStream(file.toFile())) {
+            try (CompressedFiles.GzipMember member = CompressedFiles.compress(out)) {
+                member.write("view,1\n".getBytes(StandardCharsets.UTF_8));
+                member.finish();
+                member.finish();
+            }
+
+            out.getFD().sync(); // поток файла остается открытым для синхронизации после закрытия элемента
+        }
+
+        assertEquals("view,1\n", read(file), "Сжатый элемент записан неверно");
+    }
+
+    private static String read(Path file) throws IOException {
+        try (InputStream in = CompressedFiles.openInput(file)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
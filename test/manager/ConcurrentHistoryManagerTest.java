@@ -0,0 +1,50 @@
+package manager;
+
+import model.Task;
+import model.TaskView;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentHistoryManagerTest extends HistoryManagerTest {
+    @Override
+    protected HistoryManager init() {
+        return Managers.getConcurrentHistory();
+    }
+
+    @Test
+    void testParallelAdd_ShouldKeepOneEntryPerTask() throws Exception {
+        final int threads = 8;
+        final int tasksCount = 100;
+        List<Future<?>> futures = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int thread = 0; thread < threads; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int id = 1; id <= tasksCount; id++) {
+                        Task viewed = new Task("Task" + id, "Description", null, Duration.ZERO);
+                        viewed.setId(id);
+                        historyManager.add(viewed);
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        List<TaskView> history = historyManager.getHistoryViews();
+
+        assertEquals(tasksCount, history.size(), "В истории должна быть одна запись на задачу");
+        assertEquals(tasksCount, new HashSet<>(history.stream().map(TaskView::id).toList()).size(), "В истории есть дубликаты");
+    }
+}
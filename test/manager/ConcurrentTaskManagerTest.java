@@ -0,0 +1,101 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+    @Override
+    protected TaskManager init() {
+        return Managers.getConcurrentTaskManager();
+    }
+
+    @Test
+    void testParallelAddAndUpdateSubtasks_ShouldKeepEpicConsistent() throws Exception {
+        final int threads = 8;
+        final int subtasksPerThread = 50;
+        Epic parallelEpic = new Epic("Epic", "Description Epic");
+        int epicId = taskManager.addEpic(parallelEpic);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int thread = 0; thread < threads; thread++) {
+                final int offset = thread * subtasksPerThread;
+
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < subtasksPerThread; i++) {
+                        Subtask subtask = new Subtask("Subtask" + (offset + i), "Description", parallelEpic,
+                                startTime.plusHours(10).plusMinutes((offset + i) * 10L), Duration.ofMinutes(5));
+                        int subtaskId = taskManager.addSubtask(subtask);
+
+                        Subtask toUpdate = taskManager.getSubtask(subtaskId);
+                        toUpdate.setStatus(TaskStatus.DONE);
+                        taskManager.updateSubtask(toUpdate);
+
+                        taskManager.getEpicViews();
+                        taskManager.getPrioritizedTasks();
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        Epic savedEpic = taskManager.getEpic(epicId);
+
+        assertEquals(threads * subtasksPerThread, taskManager.getSubtasks().size(), "Неверное количество подзадач");
+        assertEquals(threads * subtasksPerThread, savedEpic.getSubtasksId().size(), "Эпик потерял подзадачи");
+        assertEquals(TaskStatus.DONE, savedEpic.getStatus(), "Статус эпика рассчитан неверно");
+        assertEquals(Duration.ofMinutes(5L * threads * subtasksPerThread), savedEpic.getDuration(), "Продолжительность эпика рассчитана неверно");
+        assertEquals(threads * subtasksPerThread, taskManager.getPrioritizedTasks().size(), "Неверный размер списка приоритетов");
+    }
+
+    @Test
+    void testParallelAddWithSyncJournal_ShouldShareBatchesBetweenCallers() throws Exception {
+        final int threads = 8;
+        final int tasksPerThread = 50;
+        File file = File.createTempFile("sync", ".txt");
+        FileBackedTaskManager fileBacked = (FileBackedTaskManager) Managers.getFileBackedTaskManager(
+                file.getAbsolutePath(), DurabilityMode.SYNC);
+        fileBacked.save();
+        TaskManager manager = Managers.getConcurrentTaskManager(fileBacked);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int thread = 0; thread < threads; thread++) {
+                final int offset = thread * tasksPerThread;
+
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < tasksPerThread; i++) {
+                        manager.addTask(new Task("Task" + (offset + i), "Description",
+                                startTime.plusMinutes((offset + i) * 10L), Duration.ofMinutes(5)));
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        fileBacked.awaitCompaction();
+
+        assertTrue(fileBacked.journalBatches() < threads * tasksPerThread, "Записи разных потоков не объединяются в пакеты");
+        assertEquals(threads * tasksPerThread, FileBackedTaskManager.loadFromFile(file).getTasks().size(),
+                "Не все подтвержденные записи попали в журнал");
+    }
+}
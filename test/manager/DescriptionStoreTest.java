@@ -0,0 +1,60 @@
+package manager;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DescriptionStoreTest {
+
+    @Test
+    void testPutGetRemove_ShouldReturnLatestDescription() throws IOException {
+        DescriptionStore store = new DescriptionStore(File.createTempFile("descriptions", ".txt").toPath(), 2);
+
+        store.put(1, "Первое описание");
+        store.put(2, "");
+        store.put(3, null);
+        store.put(1, "Новое описание, с запятой\nи переносом");
+
+        assertEquals("Новое описание, с запятой\nи переносом", store.get(1), "Описание не обновлено");
+        assertEquals("", store.get(2), "Пустое описание потеряно");
+        assertNull(store.get(3), "Отсутствующее описание должно быть null");
+
+        store.remove(1);
+
+        assertNull(store.get(1), "Удаленное описание осталось в хранилище");
+        assertEquals(1, store.size(), "Неверное количество описаний");
+    }
+
+    @Test
+    void testPut_ShouldRewriteFileWhenMostRecordsAreStale() throws IOException {
+        DescriptionStore store = new DescriptionStore(File.createTempFile("descriptions", ".txt").toPath(), 0);
+        String description = "x".repeat(64 * 1024);
+
+        for (int i = 0; i < 64; i++) {
+            store.put(i % 4, description + i);
+        }
+
+        assertTrue(store.fileBytes() < 1024 * 1024 + 8 * description.length(), "Устаревшие записи не удалены из файла");
+
+        for (int id = 0; id < 4; id++) {
+            assertEquals(description + (60 + id), store.read(id), "Описание повреждено при перезаписи файла");
+        }
+    }
+
+    @Test
+    void testClose_ShouldDeleteDescriptionsFile() throws IOException {
+        File snapshot = File.createTempFile("descriptions", ".txt");
+        DescriptionStore store = new DescriptionStore(snapshot.toPath(), 2);
+        store.put(1, "Описание");
+
+        store.close();
+
+        File[] leftovers = snapshot.getParentFile()
+                .listFiles((dir, name) -> name.startsWith(snapshot.getName() + ".") && name.endsWith(".descriptions"));
+        assertEquals(0, leftovers.length, "Файл описаний не удален после close()");
+        assertNull(store.get(1), "Описание осталось после close()");
+    }
+}
@@ -1,15 +1,22 @@
 package manager;
 
+import exception.TaskOverlappingException;
 import model.*;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import java.util.Objects;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
@@ -105,6 +112,316 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         assertEquals(0, loadedTaskManager.getSubtasks().size(), "Список Subtask не очистился");
     }
 
+    @Test
+    void testLoadFromFile_ShouldIgnoreRejectedAdds() {
+        int taskId = taskManager.addTask(task);
+        Task imposter = new Task(taskId, "Imposter", "Imposter Task", TaskStatus.DONE, TaskType.TASK,
+                startTime.plusHours(9), duration);
+
+        assertEquals(-1, taskManager.addTask(imposter), "Задача с занятым id не отклонена");
+        assertEquals(-1, taskManager.addTask(null), "null должен отклоняться без исключения");
+
+        TaskManager loadedTaskManager = FileBackedTaskManager.loadFromFile(file);
+
+        assertEquals("Task1", loadedTaskManager.getTask(taskId).getTitle(), "Отклоненная задача восстановлена из журнала");
+        assertEquals(1, loadedTaskManager.getTasks().size(), "Неверное количество задач после загрузки");
+    }
+
+    @Test
+    void testLoadFromFile_ShouldNotReuseIdsOfRemovedTasks() {
+        taskManager.addTask(task);
+        Task removedTask = new Task("Removed", "Removed Task", startTime.plusHours(5), duration);
+        int removedId = taskManager.addTask(removedTask);
+        taskManager.removeTask(removedId);
+
+        TaskManager loadedTaskManager = FileBackedTaskManager.loadFromFile(file);
+        int newId = loadedTaskManager.addTask(new Task("New", "New Task", startTime.plusHours(7), duration));
+
+        assertTrue(newId > removedId, "После загрузки выдан id удаленной задачи");
+    }
+
+    @Test
+    void testLoadFromFile_ShouldReplayJournalOverSnapshot() {
+        taskManager.addEpic(epic);
+        int taskId = taskManager.addTask(task);
+        int subtaskId = taskManager.addSubtask(subtask1);
+        File journal = new File(file.getAbsolutePath() + ".journal");
+
+        Subtask subtaskToUpdate = taskManager.getSubtask(subtaskId);
+        subtaskToUpdate.setStatus(TaskStatus.DONE);
+        taskManager.updateSubtask(subtaskToUpdate);
+        taskManager.removeTask(taskId);
+
+        assertTrue(journal.exists(), "Изменения не записаны в журнал");
+
+        TaskManager loadedTaskManager = FileBackedTaskManager.loadFromFile(file);
+
+        assertFalse(journal.exists(), "Журнал должен переноситься в снимок после загрузки");
+        assertEquals(0, loadedTaskManager.getTasks().size(), "Удаление задачи не применено из журнала");
+        assertEquals(TaskStatus.DONE, loadedTaskManager.getSubtask(subtaskId).getStatus(), "Обновление подзадачи не применено из журнала");
+        assertEquals(TaskStatus.DONE, loadedTaskManager.getEpic(epic.getId()).getStatus(), "Статус эпика не пересчитан после загрузки");
+    }
+
+    @Test
+    void testLoadFromFile_ShouldReplayJournalAlreadyIncludedInSnapshot() throws IOException {
+        File crashFile = File.createTempFile("crash", ".txt");
+        Path journal = Path.of(crashFile.getPath() + ".journal");
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(crashFile);
+
+        Task first = new Task("First", "Description", startTime, duration);
+        int firstId = manager.addTask(first);
+        first.setStartTime(startTime.plusHours(2));
+        manager.updateTask(first);
+        int secondId = manager.addTask(new Task("Second", "Description", startTime, duration));
+        int removedId = manager.addTask(new Task("Removed", "Description", startTime.plusHours(4), duration));
+        manager.getTask(firstId);
+        manager.removeTask(removedId);
+        manager.flush();
+        String records = Files.readString(journal);
+
+        // сбой между заменой снимка и удалением журнала: журнал уже вошел в снимок
+        manager.save();
+        Files.writeString(journal, records);
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(crashFile);
+
+        assertEquals(List.of(firstId), loaded.getHistoryViews().stream().map(TaskView::id).toList(),
+                "История восстановлена неверно");
+        assertEquals(startTime.plusHours(2), loaded.getTaskView(firstId).startTime(), "Итоговое время задачи не восстановлено");
+        assertEquals(startTime, loaded.getTaskView(secondId).startTime(), "Задача, занявшая прежнее время, не восстановлена");
+        assertTrue(loaded.getTaskViews().stream().noneMatch(view -> view.id() == removedId), "Удаленная задача восстановилась");
+    }
+
+    @Test
+    void testLoadFromFile_ShouldRestoreHistoryFromSnapshot() throws IOException {
+        int epicId = taskManager.addEpic(epic);
+        int taskId = taskManager.addTask(task);
+        int subtaskId = taskManager.addSubtask(subtask1);
+        Path journal = Path.of(file.getAbsolutePath() + ".journal");
+        long journalSize = Files.size(journal);
+
+        taskManager.getSubtask(subtaskId);
+        taskManager.getTaskView(taskId);
+        taskManager.getEpic(epicId);
+
+        assertEquals(journalSize, Files.size(journal), "Просмотр записан в журнал");
+
+        ((FileBackedTaskManager) taskManager).save();
+        FileBackedTaskManager loadedTaskManager = FileBackedTaskManager.loadFromFile(file);
+
+        assertEquals(List.of(subtaskId, taskId, epicId),
+                loadedTaskManager.getHistoryViews().stream().map(TaskView::id).toList(), "История из снимка не восстановлена");
+
+        loadedTaskManager.getTask(taskId);
+        loadedTaskManager.save();
+        loadedTaskManager.getSubtaskView(subtaskId);
+
+        TaskManager reloadedTaskManager = FileBackedTaskManager.loadFromFile(file);
+
+        assertEquals(List.of(subtaskId, epicId, taskId),
+                reloadedTaskManager.getHistoryViews().stream().map(TaskView::id).toList(),
+                "Просмотр после снимка не должен сохраняться");
+
+        reloadedTaskManager.removeTask(taskId);
+
+        assertEquals(List.of(subtaskId, epicId),
+                FileBackedTaskManager.loadFromFile(file).getHistoryViews().stream().map(TaskView::id).toList(),
+                "Удаленная задача осталась в истории");
+    }
+
+    @Test
+    void testCompaction_ShouldWriteSnapshotInBackgroundAndDropJournal() throws IOException {
+        File compactedFile = File.createTempFile("compaction", ".txt");
+        File journal = new File(compactedFile.getAbsolutePath() + ".journal");
+        File sealedJournal = new File(compactedFile.getAbsolutePath() + ".journal.sealed");
+        FileBackedTaskManager compactedManager = (FileBackedTaskManager) Managers.getFileBackedTaskManager(
+                compactedFile.getAbsolutePath(), new PersistenceSettings(DurabilityMode.NONE, new CompactionPolicy(0, 3, null)));
+
+        compactedManager.addEpic(epic);
+        compactedManager.addTask(task);
+        compactedManager.addSubtask(subtask1);
+        compactedManager.addSubtask(subtask2);
+        compactedManager.awaitCompaction();
+
+        assertFalse(journal.exists(), "Журнал не был свернут в снимок");
+        assertFalse(sealedJournal.exists(), "Закрытый журнал не удален после записи снимка");
+
+        compactedManager.removeTask(task.getId());
+
+        TaskManager loadedTaskManager = FileBackedTaskManager.loadFromFile(compactedFile);
+
+        assertEquals(0, loadedTaskManager.getTasks().size(), "Изменение после сжатия потеряно");
+        assertEquals(2, loadedTaskManager.getSubtasks().size(), "Подзадачи из снимка потеряны");
+        assertEquals(List.of(subtask1.getId(), subtask2.getId()),
+                loadedTaskManager.getEpicView(epic.getId()).subtasksId(), "Связи эпика с подзадачами потеряны");
+    }
+
+    @Test
+    void testCompaction_ShouldFollowIntervalWithoutNewChanges() throws IOException, InterruptedException {
+        File compactedFile = File.createTempFile("interval", ".txt");
+        File journal = new File(compactedFile.getAbsolutePath() + ".journal");
+        FileBackedTaskManager compactedManager = (FileBackedTaskManager) Managers.getFileBackedTaskManager(
+                compactedFile.getAbsolutePath(),
+                new PersistenceSettings(DurabilityMode.NONE, new CompactionPolicy(0, 0, Duration.ofMillis(50))));
+
+        compactedManager.addEpic(epic);
+        compactedManager.addTask(task);
+
+        for (int i = 0; i < 100 && journal.exists(); i++) {
+            Thread.sleep(50);
+        }
+
+        assertFalse(journal.exists(), "Журнал не свернут по времени без новых изменений");
+
+        compactedManager.getTask(task.getId());
+        compactedManager.close();
+
+        assertTrue(Thread.getAllStackTraces().keySet().stream()
+                        .noneMatch(thread -> thread.getName().equals("journal-compactor-" + compactedFile.getName())),
+                "Поток сжатия не остановлен после close()");
+        assertEquals(List.of(task.getId()), FileBackedTaskManager.loadFromFile(compactedFile).getHistoryViews().stream()
+                .map(TaskView::id).toList(), "История не сохранена при close()");
+    }
+
+    @Test
+    void testDurabilityModes_ShouldPersistJournalForReload() throws IOException {
+        for (DurabilityMode mode : DurabilityMode.values()) {
+            File durableFile = File.createTempFile("durability", ".txt");
+            FileBackedTaskManager durableManager = (FileBackedTaskManager) Managers.getFileBackedTaskManager(durableFile.getAbsolutePath(), mode);
+
+            durableManager.addEpic(new Epic("Epic", "Description Epic"));
+            int taskId = durableManager.addTask(new Task("Task", "Description Task", startTime, duration));
+            durableManager.removeTask(taskId);
+            durableManager.addTask(new Task("Task2", "Description Task2", startTime, duration));
+            durableManager.flush();
+
+            TaskManager loadedTaskManager = FileBackedTaskManager.loadFromFile(durableFile);
+
+            assertEquals(1, loadedTaskManager.getEpics().size(), "Эпик не сохранен в режиме " + mode);
+            assertEquals("Task2", loadedTaskManager.getTasks().getFirst().getTitle(), "Журнал не сохранен в режиме " + mode);
+        }
+    }
+
+    @Test
+    void testLoadFromFile_ShouldKeepCommasAndLineBreaksInText() {
+        task.setTitle("Title, with comma");
+        task.setDescription("Line one\nline \"two\"");
+        int taskId = taskManager.addTask(task);
+        taskManager.addEpic(epic);
+
+        Task journaledTask = new Task("Journal, title", " padded ", startTime.plusHours(9), duration);
+        int journaledId = taskManager.addTask(journaledTask);
+
+        TaskManager loadedTaskManager = FileBackedTaskManager.loadFromFile(file);
+
+        assertTrue(loadedTaskManager.getHistory().isEmpty(), "Загрузка не должна попадать в историю просмотров");
+        assertEquals("Title, with comma", loadedTaskManager.getTask(taskId).getTitle(), "Название из снимка искажено");
+        assertEquals("Line one\nline \"two\"", loadedTaskManager.getTask(taskId).getDescription(), "Описание из снимка искажено");
+        assertEquals("Journal, title", loadedTaskManager.getTask(journaledId).getTitle(), "Название из журнала искажено");
+        assertEquals(" padded ", loadedTaskManager.getTask(journaledId).getDescription(), "Пробелы по краям потеряны");
+    }
+
+    @Test
+    void testCompressedSnapshots_ShouldBeReadableInEveryFormat() throws IOException {
+        for (SnapshotFormat format : List.of(SnapshotFormat.CSV, SnapshotFormat.BINARY, SnapshotFormat.SEGMENTED)) {
+            File compressedFile = File.createTempFile("compressed", ".txt");
+            PersistenceSettings settings = PersistenceSettings.defaults().withSnapshotFormat(format).withCompression(true);
+            FileBackedTaskManager compressedManager = (FileBackedTaskManager) Managers.getFileBackedTaskManager(
+                    compressedFile.getAbsolutePath(), settings);
+
+            Epic compressedEpic = new Epic("Epic", "Описание ".repeat(100));
+            int epicId = compressedManager.addEpic(compressedEpic);
+            compressedManager.addSubtask(new Subtask("Subtask", "Description, with comma", compressedEpic, startTime, duration));
+            compressedManager.save();
+
+            if (format != SnapshotFormat.SEGMENTED) {
+                assertTrue(CompressedFiles.isCompressed(compressedFile.toPath()), "Снимок " + format + " не сжат");
+            }
+
+            TaskManager loadedTaskManager = FileBackedTaskManager.loadFromFile(compressedFile, settings);
+
+            assertEquals("Описание ".repeat(100), loadedTaskManager.getEpic(epicId).getDescription(), "Эпик не прочитан в формате " + format);
+            assertEquals("Description, with comma", loadedTaskManager.getSubtasks().getFirst().getDescription(),
+                    "Подзадача не прочитана в формате " + format);
+        }
+    }
+
+    @Test
+    void testLoadFromFile_ShouldReplayCompressedSealedJournal() throws IOException {
+        File sealedFile = File.createTempFile("sealed", ".txt");
+        FileBackedTaskManager sealedManager = (FileBackedTaskManager) Managers.getFileBackedTaskManager(sealedFile.getAbsolutePath());
+
+        int taskId = sealedManager.addTask(task);
+        sealedManager.removeTask(taskId);
+        int keptId = sealedManager.addTask(new Task("Kept", "Kept Task", startTime.plusHours(3), duration));
+
+        // закрытый журнал, оставшийся после неудачного фонового снимка
+        File journal = new File(sealedFile.getAbsolutePath() + ".journal");
+        File sealedJournal = new File(sealedFile.getAbsolutePath() + ".journal.sealed");
+        assertTrue(journal.renameTo(sealedJournal), "Журнал не переименован");
+        CompressedFiles.compressInPlace(sealedJournal.toPath());
+
+        TaskManager loadedTaskManager = FileBackedTaskManager.loadFromFile(sealedFile);
+
+        assertEquals(List.of(keptId), loadedTaskManager.getTasks().stream().map(Task::getId).toList(),
+                "Сжатый закрытый журнал не применен");
+        assertFalse(sealedJournal.exists(), "Закрытый журнал не перенесен в снимок");
+    }
+
+    @Test
+    void testLazyDescriptions_ShouldLoadDescriptionOnlyForSingleItemReads() throws IOException {
+        File lazyFile = File.createTempFile("lazy", ".txt");
+        PersistenceSettings settings = PersistenceSettings.defaults().withLazyDescriptions(16);
+        FileBackedTaskManager lazyManager = (FileBackedTaskManager) Managers.getFileBackedTaskManager(
+                lazyFile.getAbsolutePath(), settings);
+
+        int epicId = lazyManager.addEpic(epic);
+        int taskId = lazyManager.addTask(task);
+        int subtaskId = lazyManager.addSubtask(subtask1);
+
+        assertEquals("Description Task1", task.getDescription(), "Описание переданного объекта изменено");
+        assertNull(lazyManager.getTaskViews().getFirst().description(), "Описание задачи хранится в памяти");
+        assertNull(lazyManager.getPrioritizedTaskViews().getFirst().description(), "Описание попало в список приоритетов");
+        assertEquals(task.getDescription(), lazyManager.getTask(taskId).getDescription(), "Описание задачи не загружено");
+        assertEquals(epic.getDescription(), lazyManager.getEpicView(epicId).description(), "Описание эпика не загружено");
+
+        Subtask updated = lazyManager.getSubtask(subtaskId);
+        updated.setDescription("Updated description");
+        lazyManager.updateSubtask(updated);
+        lazyManager.save();
+        lazyManager.removeTask(taskId);
+
+        FileBackedTaskManager loadedTaskManager = FileBackedTaskManager.loadFromFile(lazyFile, settings);
+
+        assertEquals("Updated description", loadedTaskManager.getSubtaskView(subtaskId).description(),
+                "Описание из снимка не загружено");
+        assertNull(loadedTaskManager.getSubtasks().getFirst().getDescription(), "Описание после загрузки хранится в памяти");
+        assertEquals("Updated description", FileBackedTaskManager.loadFromFile(lazyFile).getSubtask(subtaskId).getDescription(),
+                "Снимок записан без описаний");
+    }
+
+    @Test
+    void testLazyDescriptions_ShouldKeepDescriptionWhenUpdateIsRejected() throws IOException {
+        File lazyFile = File.createTempFile("lazy", ".txt");
+        FileBackedTaskManager lazyManager = (FileBackedTaskManager) Managers.getFileBackedTaskManager(
+                lazyFile.getAbsolutePath(), PersistenceSettings.defaults().withLazyDescriptions(16));
+
+        lazyManager.addEpic(epic);
+        int taskId = lazyManager.addTask(task);
+        lazyManager.addSubtask(subtask1);
+
+        Task rejected = lazyManager.getTask(taskId);
+        rejected.setDescription("Rejected description");
+        rejected.setStartTime(subtask1.getStartTime());
+
+        assertThrows(TaskOverlappingException.class, () -> lazyManager.updateTask(rejected),
+                "Пересекающееся обновление не отклонено");
+        assertEquals("Description Task1", lazyManager.getTask(taskId).getDescription(),
+                "Описание отклоненного обновления попало в хранилище");
+        assertEquals("Description Task1", lazyManager.getTaskView(taskId).description(),
+                "Описание отклоненного обновления попало в представление");
+    }
+
     @Test
     void testLoadFromEmptyFile_ShouldReturnEmptyTask() throws IOException {
         TaskManager tempTaskManager = FileBackedTaskManager.loadFromFile(File.createTempFile("empty", ".txt"));
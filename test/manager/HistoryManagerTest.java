@@ -16,7 +16,7 @@ import static org.junit.jupiter.api.Assertions.*;
 
 public abstract class HistoryManagerTest {
 
-    private static HistoryManager historyManager;
+    protected static HistoryManager historyManager;
     private static Task task;
     private static Epic epic;
     private static Subtask subtask1;
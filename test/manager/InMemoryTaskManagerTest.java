@@ -1,8 +1,22 @@
 package manager;
 
+import model.TaskType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
 class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
     @Override
     protected TaskManager init() {
         return Managers.getDefault();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testVersions_ShouldDifferBetweenManagerInstances() {
+        TaskManager first = Managers.getDefault();
+        TaskManager second = Managers.getDefault();
+
+        assertNotEquals(first.getVersion(TaskType.TASK), second.getVersion(TaskType.TASK),
+                "Новый экземпляр менеджера повторяет версии предыдущего");
+    }
+}
@@ -0,0 +1,74 @@
+package manager;
+
+import model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalScheduleIndexTest {
+    private static final LocalDateTime START_TIME = LocalDateTime.of(2025, 1, 1, 10, 0);
+
+    private IntervalScheduleIndex index;
+    private Task task1;
+    private Task task2;
+
+    @BeforeEach
+    void setUp() {
+        index = new IntervalScheduleIndex();
+        task1 = new Task("Task1", "Description Task1", START_TIME, Duration.ofMinutes(30));
+        task2 = new Task("Task2", "Description Task2", START_TIME.plusHours(2), Duration.ofMinutes(30));
+        task1.setId(1);
+        task2.setId(2);
+        index.add(task1);
+        index.add(task2);
+    }
+
+    @Test
+    void testIsOverlapping_ShouldDetectOverlapWithNeighbours() {
+        assertTrue(index.isOverlapping(3, START_TIME.minusMinutes(10), START_TIME.plusMinutes(5)),
+                "Не найдено пересечение с началом задачи");
+        assertTrue(index.isOverlapping(3, START_TIME.plusMinutes(10), START_TIME.plusMinutes(20)),
+                "Не найдено пересечение с интервалом внутри задачи");
+        assertTrue(index.isOverlapping(3, START_TIME.plusMinutes(30), START_TIME.plusMinutes(40)),
+                "Не найдено пересечение по границе задачи");
+        assertTrue(index.isOverlapping(3, START_TIME.minusHours(1), START_TIME.plusHours(3)),
+                "Не найдено пересечение с интервалом, покрывающим задачи");
+        assertFalse(index.isOverlapping(3, START_TIME.plusHours(1), START_TIME.plusMinutes(90)),
+                "Найдено пересечение в свободном интервале");
+    }
+
+    @Test
+    void testIsOverlapping_ShouldIgnoreTaskWithTheSameId() {
+        Task updatedTask = new Task(task1);
+        updatedTask.setStartTime(START_TIME.plusMinutes(10));
+
+        assertFalse(index.isOverlapping(updatedTask), "Задача пересекается сама с собой");
+
+        updatedTask.setStartTime(START_TIME.plusMinutes(110));
+
+        assertTrue(index.isOverlapping(updatedTask), "Не найдено пересечение с другой задачей");
+    }
+
+    @Test
+    void testRemove_ShouldRemoveTaskByIdAfterExternalChange() {
+        task1.setStartTime(START_TIME.plusHours(5));
+
+        assertEquals(task1, index.remove(task1.getId()), "Удалена не та задача");
+        assertFalse(index.contains(task1.getId()), "Задача осталась в индексе");
+        assertEquals(List.of(task2), List.copyOf(index.getTasks()), "В индексе остались лишние задачи");
+    }
+
+    @Test
+    void testGetTasks_ShouldReturnTasksSortedByStartTime() {
+        Task task3 = new Task("Task3", "Description Task3", START_TIME.minusHours(2), Duration.ofMinutes(30));
+        task3.setId(3);
+        index.add(task3);
+
+        assertEquals(List.of(task3, task1, task2), List.copyOf(index.getTasks()), "Задачи не отсортированы");
+    }
+}
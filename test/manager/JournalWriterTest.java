@@ -0,0 +1,101 @@
+package manager;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalWriterTest {
+
+    @Test
+    void testSyncAppendFromManyThreads_ShouldWriteEveryRecordOnce() throws Exception {
+        File file = File.createTempFile("journal", ".journal");
+        JournalWriter writer = new JournalWriter(file.toPath(), DurabilityMode.SYNC, 16);
+        final int threads = 8;
+        final int recordsPerThread = 100;
+        List<Future<?>> futures = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int thread = 0; thread < threads; thread++) {
+                final int offset = thread * recordsPerThread;
+
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < recordsPerThread; i++) {
+                        writer.awaitDurable(writer.append("record," + (offset + i)));
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        List<String> lines = Files.readAllLines(file.toPath());
+
+        assertEquals(threads * recordsPerThread, lines.size(), "Неверное количество записей в журнале");
+        assertEquals(threads * recordsPerThread, new HashSet<>(lines).size(), "Записи в журнале дублируются");
+        writer.close();
+    }
+
+    @Test
+    void testAsyncFlush_ShouldWriteAllAcceptedRecords() throws IOException {
+        File file = File.createTempFile("journal", ".journal");
+        JournalWriter writer = new JournalWriter(file.toPath(), DurabilityMode.ASYNC, 4);
+
+        for (int i = 0; i < 50; i++) {
+            writer.append("record," + i);
+        }
+        writer.flush();
+
+        assertEquals(50, Files.readAllLines(file.toPath()).size(), "После flush в журнале должны быть все записи");
+        writer.close();
+    }
+
+    @Test
+    void testAppendAfterClose_ShouldReopenJournal() throws IOException {
+        File file = File.createTempFile("journal", ".journal");
+        JournalWriter writer = new JournalWriter(file.toPath(), DurabilityMode.SYNC, 4);
+
+        writer.append("first");
+        writer.close();
+        Files.delete(file.toPath());
+        writer.append("second");
+        writer.close();
+
+        assertEquals(List.of("second"), Files.readAllLines(file.toPath()), "Журнал должен открываться заново после закрытия");
+    }
+
+    @Test
+    void testRotate_ShouldMoveOnlyRecordsAcceptedBeforeCall() throws IOException {
+        for (DurabilityMode mode : DurabilityMode.values()) {
+            File file = File.createTempFile("journal", ".journal");
+            Path rotated = Path.of(file.getPath() + ".rotated");
+            JournalWriter writer = new JournalWriter(file.toPath(), mode, 4);
+
+            for (int i = 0; i < 10; i++) {
+                writer.append("before," + i);
+            }
+            writer.rotate(rotated);
+            writer.append("after");
+            writer.awaitRotation();
+            writer.flush();
+
+            assertEquals(10, Files.readAllLines(rotated).size(), "Записи до переноса потеряны в режиме " + mode);
+            assertTrue(Files.readAllLines(rotated).stream().allMatch(line -> line.startsWith("before")),
+                    "В перенесенный файл попали поздние записи в режиме " + mode);
+            assertEquals(List.of("after"), Files.readAllLines(file.toPath()), "Новые записи не попали в новый журнал в режиме " + mode);
+            writer.close();
+        }
+    }
+}
@@ -2,6 +2,9 @@ package manager;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class ManagersTest {
@@ -12,12 +15,31 @@ class ManagersTest {
                 "Default task manager должен имплементировать TaskManager");
     }
 
+    @Test
+    void testGetSlotScheduledTaskManager_ShouldReturnInMemoryTaskManager() {
+        assertInstanceOf(InMemoryTaskManager.class,
+                Managers.getSlotScheduledTaskManager(LocalDateTime.now(), Duration.ofDays(1)),
+                "Task manager с календарем слотов должен наследоваться от InMemoryTaskManager");
+    }
+
+    @Test
+    void testGetConcurrentTaskManager_ShouldReturnConcurrentTaskManager() {
+        assertInstanceOf(ConcurrentTaskManager.class, Managers.getConcurrentTaskManager(),
+                "Потокобезопасный task manager должен быть ConcurrentTaskManager");
+    }
+
     @Test
     void testGetDefaultHistoryManager_ShouldReturnDefaultHistoryManager() {
         assertInstanceOf(HistoryManager.class, Managers.getDefaultHistory(),
                 "Default history manager должен имплементировать HistoryManager");
     }
 
+    @Test
+    void testGetConcurrentHistoryManager_ShouldReturnConcurrentHistoryManager() {
+        assertInstanceOf(ConcurrentHistoryManager.class, Managers.getConcurrentHistory(),
+                "Потокобезопасная история должна быть ConcurrentHistoryManager");
+    }
+
     @Test
     void testGetFileBackedTaskManager_ShouldReturnFileBackedTaskManager() {
         assertInstanceOf(TaskManager.class, Managers.getFileBackedTaskManager("test"),
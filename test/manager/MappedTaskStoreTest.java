@@ -0,0 +1,95 @@
+package manager;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedTaskStoreTest {
+
+    @Test
+    void testOpen_ShouldFindRecordsByIdWithoutLoading() throws IOException {
+        File file = File.createTempFile("mapped", ".snapshot");
+        TaskView task = new TaskView(7, "Task, \"с кавычками\"", null, TaskStatus.NEW, TaskType.TASK,
+                Duration.ofMinutes(30), LocalDateTime.of(2024, 2, 1, 12, 0, 0, 5_000_000), null, null, null);
+        TaskView epic = new TaskView(3, "Epic", "Описание", TaskStatus.IN_PROGRESS, TaskType.EPIC,
+                Duration.ZERO, null, null, null, null);
+        TaskView subtask = new TaskView(5, "", "Description", TaskStatus.DONE, TaskType.SUBTASK,
+                Duration.ofMinutes(15), LocalDateTime.of(2024, 2, 1, 13, 0), 3, null, null);
+
+        try (OutputStream out = new FileOutputStream(file)) {
+            MappedTaskStore.write(out, List.of(task, epic, subtask), 9);
+        }
+
+        MappedTaskStore store = MappedTaskStore.open(file.toPath());
+
+        assertEquals(3, store.size(), "Неверное количество записей");
+        assertEquals(9, store.getLastId(), "lastId не совпадает");
+        assertEquals(task, store.find(7), "Задача не найдена по id");
+        assertEquals(epic, store.find(3), "Эпик не найден по id");
+        assertEquals(subtask, store.find(5), "Подзадача не найдена по id");
+        assertNull(store.find(4), "Отсутствующий id должен возвращать null");
+        assertEquals(task, store.get(0), "Порядок записей не сохранился");
+
+        store.close();
+
+        assertNull(store.find(7), "Закрытое хранилище не должно читать отображение");
+        assertThrows(IllegalStateException.class, () -> store.get(0), "Чтение закрытого хранилища не отклонено");
+    }
+
+    @Test
+    void testFileBackedManagerWithMappedSnapshot_ShouldSaveAndLoad() throws IOException {
+        File file = File.createTempFile("mapped", ".snapshot");
+        PersistenceSettings settings = PersistenceSettings.defaults().withSnapshotFormat(SnapshotFormat.MAPPED);
+        FileBackedTaskManager manager = new FileBackedTaskManager(Managers.getDefaultHistory(), file.getPath(), settings);
+
+        Epic epic = new Epic("Epic", "Description");
+        manager.addEpic(epic);
+        Subtask subtask = new Subtask("Subtask", "Description", epic, LocalDateTime.of(2024, 5, 1, 10, 0), Duration.ofMinutes(30));
+        manager.addSubtask(subtask);
+        manager.save();
+
+        TaskManager loaded = FileBackedTaskManager.loadFromFile(file, settings);
+
+        assertEquals(List.of(subtask.getId()), loaded.getEpicView(epic.getId()).subtasksId(), "Связь эпика с подзадачей потеряна");
+        assertEquals(subtask.getEndTime(), loaded.getEpic(epic.getId()).getEndTime(), "Время эпика не пересчитано");
+    }
+
+    @Test
+    void testLoadWithoutJournal_ShouldServeReadsAndKeepHistoryOrder() throws IOException {
+        File file = File.createTempFile("mapped", ".snapshot");
+        PersistenceSettings settings = PersistenceSettings.defaults().withSnapshotFormat(SnapshotFormat.MAPPED);
+        FileBackedTaskManager manager = new FileBackedTaskManager(Managers.getDefaultHistory(), file.getPath(), settings);
+
+        Epic epic = new Epic("Epic", "Description");
+        manager.addEpic(epic);
+        Subtask subtask = new Subtask("Subtask", "Description", epic, LocalDateTime.of(2024, 5, 1, 10, 0), Duration.ofMinutes(30));
+        manager.addSubtask(subtask);
+        int taskId = manager.addTask(new Task("Task", "Описание", LocalDateTime.of(2024, 5, 1, 12, 0), Duration.ofMinutes(15)));
+        manager.getEpic(epic.getId());
+        manager.save();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, settings);
+
+        assertEquals("Описание", loaded.getTaskView(taskId).description(), "Задача не прочитана из снимка");
+        assertEquals(epic.getId(), loaded.getSubtask(subtask.getId()).getEpicId(), "Подзадача не прочитана из снимка");
+        assertEquals(List.of(epic.getId(), taskId, subtask.getId()),
+                loaded.getHistoryViews().stream().map(TaskView::id).toList(), "Просмотры до загрузки снимка потеряны");
+
+        loaded.removeTask(taskId);
+        loaded.save();
+
+        TaskManager reloaded = FileBackedTaskManager.loadFromFile(file, settings);
+
+        assertEquals(List.of(subtask.getId()), reloaded.getEpicView(epic.getId()).subtasksId(), "Связь эпика с подзадачей потеряна");
+        assertTrue(reloaded.getTasks().isEmpty(), "Снимок не заменен после загрузки");
+    }
+}
@@ -0,0 +1,100 @@
+package manager;
+
+import exception.ManagerSaveException;
+import model.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentedSnapshotStoreTest {
+    private final PersistenceSettings settings = PersistenceSettings.defaults().withSnapshotFormat(SnapshotFormat.SEGMENTED);
+    private final LocalDateTime startTime = LocalDateTime.of(2024, 6, 1, 9, 0);
+
+    @Test
+    void testSave_ShouldRewriteOnlyChangedSegments() throws IOException {
+        File file = File.createTempFile("segmented", ".txt");
+        Path segments = Path.of(file.getPath() + ".segments");
+        FileBackedTaskManager manager = new FileBackedTaskManager(Managers.getDefaultHistory(), file.getPath(), settings);
+
+        Task first = new Task(1, "First", "Description", TaskStatus.NEW, TaskType.TASK, startTime, Duration.ofMinutes(15));
+        Task far = new Task(5000, "Far", "Description", TaskStatus.NEW, TaskType.TASK, startTime.plusHours(1), Duration.ofMinutes(15));
+        manager.addTask(first);
+        manager.addTask(far);
+        manager.save();
+
+        Path farSegment = segments.resolve("4.csv");
+        assertTrue(Files.exists(segments.resolve("0.csv")) && Files.exists(farSegment), "Сегменты не записаны");
+
+        // правка на диске покажет, перезаписывался ли сегмент
+        Files.writeString(farSegment, Files.readString(farSegment).replace("Far", "Untouched"));
+
+        first.setStatus(TaskStatus.DONE);
+        manager.updateTask(first);
+        manager.save();
+
+        TaskManager loaded = FileBackedTaskManager.loadFromFile(file, settings);
+
+        assertEquals(TaskStatus.DONE, loaded.getTask(1).getStatus(), "Измененный сегмент не перезаписан");
+        assertEquals("Untouched", loaded.getTask(5000).getTitle(), "Неизмененный сегмент не должен перезаписываться");
+    }
+
+    @Test
+    void testSave_ShouldKeepEpicAndSubtasksFromDifferentSegmentsConsistent() throws IOException {
+        File file = File.createTempFile("segmented", ".txt");
+        Path segments = Path.of(file.getPath() + ".segments");
+        FileBackedTaskManager manager = new FileBackedTaskManager(Managers.getDefaultHistory(), file.getPath(), settings);
+
+        Epic epic = new Epic(1, "Epic", "Description", TaskStatus.NEW, TaskType.EPIC, null, null, Duration.ZERO);
+        manager.addEpic(epic);
+        Subtask subtask = new Subtask(3000, "Subtask", "Description", TaskStatus.NEW, TaskType.SUBTASK, 1, startTime, Duration.ofMinutes(30));
+        manager.addSubtask(subtask);
+        Task task = new Task(6000, "Task", "Description", TaskStatus.NEW, TaskType.TASK, startTime.plusHours(2), Duration.ofMinutes(15));
+        manager.addTask(task);
+        manager.save();
+
+        subtask.setStatus(TaskStatus.DONE);
+        manager.updateSubtask(subtask);
+        manager.removeTask(6000);
+        manager.save();
+
+        assertFalse(Files.exists(segments.resolve("5.csv")), "Файл опустевшего сегмента не удален");
+
+        TaskManager loaded = FileBackedTaskManager.loadFromFile(file, settings);
+
+        assertEquals(TaskStatus.DONE, loaded.getEpic(1).getStatus(), "Статус эпика не сохранился");
+        assertEquals(startTime, loaded.getEpic(1).getStartTime(), "Время эпика не пересчитано");
+        assertTrue(loaded.getTasks().isEmpty(), "Удаленная задача восстановилась");
+    }
+
+    @Test
+    void testSave_ShouldRewriteAllSegmentsAfterFailedWrite() throws IOException {
+        File file = File.createTempFile("segmented", ".txt");
+        Path segments = Path.of(file.getPath() + ".segments");
+        FileBackedTaskManager manager = new FileBackedTaskManager(Managers.getDefaultHistory(), file.getPath(), settings);
+
+        Task first = new Task(1, "First", "Description", TaskStatus.NEW, TaskType.TASK, startTime, Duration.ofMinutes(15));
+        manager.addTask(first);
+        manager.save();
+
+        // каталог на месте временного файла не дает записать сегмент
+        Path blocker = Files.createDirectory(segments.resolve("0.csv.tmp"));
+        first.setStatus(TaskStatus.DONE);
+        manager.updateTask(first);
+
+        assertThrows(ManagerSaveException.class, manager::save, "Ошибка записи сегмента не передана");
+
+        Files.delete(blocker);
+        manager.save();
+
+        TaskManager loaded = FileBackedTaskManager.loadFromFile(file, settings);
+
+        assertEquals(TaskStatus.DONE, loaded.getTask(1).getStatus(), "Изменение потеряно после неудачной записи снимка");
+    }
+}
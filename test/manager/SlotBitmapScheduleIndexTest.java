@@ -0,0 +1,75 @@
+package manager;
+
+import model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotBitmapScheduleIndexTest {
+    private static final LocalDateTime PLANNING_START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private SlotBitmapScheduleIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SlotBitmapScheduleIndex(PLANNING_START, Duration.ofDays(30));
+    }
+
+    @Test
+    void testIsOverlapping_ShouldUseExactCheckInsideSharedSlot() {
+        index.add(createTask(1, PLANNING_START.plusMinutes(100), Duration.ofMinutes(3)));
+
+        assertFalse(index.isOverlapping(2, PLANNING_START.plusMinutes(104), PLANNING_START.plusMinutes(110)),
+                "Найдено пересечение с задачей из того же слота");
+        assertTrue(index.isOverlapping(2, PLANNING_START.plusMinutes(102), PLANNING_START.plusMinutes(110)),
+                "Не найдено пересечение с задачей из того же слота");
+        assertFalse(index.isOverlapping(2, PLANNING_START.plusHours(5), PLANNING_START.plusHours(6)),
+                "Найдено пересечение в свободных слотах");
+    }
+
+    @Test
+    void testRemove_ShouldKeepSlotsOfNeighbourTask() {
+        index.add(createTask(1, PLANNING_START.plusMinutes(100), Duration.ofMinutes(3)));
+        index.add(createTask(2, PLANNING_START.plusMinutes(104), Duration.ofMinutes(3)));
+
+        index.remove(1);
+
+        assertTrue(index.isOverlapping(3, PLANNING_START.plusMinutes(105), PLANNING_START.plusMinutes(106)),
+                "Освобожден слот соседней задачи");
+        assertFalse(index.isOverlapping(3, PLANNING_START.plusMinutes(100), PLANNING_START.plusMinutes(103)),
+                "Интервал удаленной задачи остался занят");
+    }
+
+    @Test
+    void testAdd_ShouldHandleTasksOutsidePlanningHorizon() {
+        Task beforeHorizon = createTask(1, PLANNING_START.minusHours(1), Duration.ofMinutes(90));
+        Task afterHorizon = createTask(2, PLANNING_START.plusDays(40), Duration.ofMinutes(30));
+
+        index.add(beforeHorizon);
+        index.add(afterHorizon);
+
+        assertTrue(index.isOverlapping(3, PLANNING_START.plusMinutes(10), PLANNING_START.plusMinutes(20)),
+                "Не учтена часть задачи внутри горизонта");
+        assertTrue(index.isOverlapping(3, PLANNING_START.plusDays(40), PLANNING_START.plusDays(41)),
+                "Не найдено пересечение за горизонтом планирования");
+        assertEquals(List.of(beforeHorizon, afterHorizon), List.copyOf(index.getTasks()), "Задачи не отсортированы");
+    }
+
+    @Test
+    void testConstructor_ShouldRejectIncorrectSlotDuration() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new SlotBitmapScheduleIndex(PLANNING_START, Duration.ofDays(1), Duration.ZERO),
+                "Создан календарь с нулевым слотом");
+    }
+
+    private static Task createTask(int id, LocalDateTime startTime, Duration duration) {
+        Task task = new Task("Task" + id, "Description Task" + id, startTime, duration);
+        task.setId(id);
+        return task;
+    }
+}
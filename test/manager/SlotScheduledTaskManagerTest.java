@@ -0,0 +1,11 @@
+package manager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+class SlotScheduledTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
+    @Override
+    protected TaskManager init() {
+        return Managers.getSlotScheduledTaskManager(LocalDateTime.now().minusDays(2), Duration.ofDays(4));
+    }
+}
@@ -157,6 +157,19 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertTrue(subtasks.contains(subtask2), "Выводится не корректный список Subtask");
     }
 
+    @Test
+    void testGetAllSubtasksByEpic_ShouldReturnSubtasksOfStoredEpicOrderedById() {
+        taskManager.addEpic(epic);
+        final Epic epicCopy = taskManager.getEpic(epic.getId());
+
+        taskManager.addSubtask(subtask2);
+        taskManager.addSubtask(subtask1);
+
+        final List<Subtask> subtasks = taskManager.getAllSubtasksByEpic(epicCopy);
+
+        assertEquals(List.of(subtask2, subtask1), subtasks, "Подзадачи эпика не упорядочены по id");
+    }
+
     @Test
     void testClearTask_ShouldClearTask() {
         taskManager.addTask(task);
@@ -728,4 +741,110 @@ public abstract class TaskManagerTest<T extends TaskManager> {
                 expectedStartTime.equals(actualStartTime) &&
                 expectedDuration.equals(actualDuration);
     }
+
+    @Test
+    void testViews_ShouldReflectUpdatesAndRecordHistory() {
+        taskManager.addEpic(epic);
+        int taskId = taskManager.addTask(task);
+        int subtaskId = taskManager.addSubtask(subtask1);
+
+        assertEquals(List.of(subtaskId), taskManager.getEpicView(epic.getId()).subtasksId(), "Представление эпика не содержит подзадачу");
+        assertEquals(List.of(taskId, subtaskId), taskManager.getPrioritizedTaskViews().stream().map(TaskView::id).toList(), "Неверный порядок представлений");
+
+        Subtask subtaskToUpdate = taskManager.getSubtask(subtaskId);
+        subtaskToUpdate.setStatus(TaskStatus.DONE);
+        taskManager.updateSubtask(subtaskToUpdate);
+
+        assertEquals(TaskStatus.DONE, taskManager.getSubtaskViews().getFirst().status(), "Представление подзадачи не обновилось");
+        assertEquals(TaskStatus.DONE, taskManager.getEpicViews().getFirst().status(), "Представление эпика не обновилось");
+        assertEquals(List.of(epic.getId(), subtaskId), taskManager.getHistoryViews().stream().map(TaskView::id).toList(), "Просмотр представлений не попал в историю");
+
+        taskManager.removeTask(taskId);
+
+        assertTrue(taskManager.getTaskViews().isEmpty(), "Представление удаленной задачи осталось");
+    }
+
+    @Test
+    void testViewPages_ShouldPageThroughListsWithCursor() {
+        List<Integer> taskIds = new ArrayList<>();
+
+        for (int i = 0; i < 7; i++) {
+            taskIds.add(taskManager.addTask(new Task("Task" + i, "Description" + i, startTime.minusHours(i), duration)));
+        }
+        taskIds.forEach(taskManager::getTaskView);
+
+        List<Integer> pagedIds = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+
+        do {
+            ViewPage page = taskManager.getTaskViewPage(cursor, 3);
+            page.items().forEach(view -> pagedIds.add(view.id()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(taskIds, pagedIds, "Страницы задач идут не по порядку id");
+        assertEquals(3, pages, "Неверное количество страниц");
+
+        ViewPage firstPrioritized = taskManager.getPrioritizedTaskViewPage(null, 4);
+        ViewPage secondPrioritized = taskManager.getPrioritizedTaskViewPage(firstPrioritized.nextCursor(), 4);
+        List<TaskView> prioritized = new ArrayList<>(firstPrioritized.items());
+        prioritized.addAll(secondPrioritized.items());
+
+        assertEquals(taskManager.getPrioritizedTaskViews(), prioritized, "Страницы приоритетов не совпадают со списком");
+        assertNull(secondPrioritized.nextCursor(), "У последней страницы не должно быть курсора");
+
+        ViewPage historyPage = taskManager.getHistoryViewPage(taskManager.getHistoryViewPage(null, 5).nextCursor(), 5);
+
+        assertEquals(taskIds.subList(5, 7), historyPage.items().stream().map(TaskView::id).toList(), "Неверная страница истории");
+        assertTrue(taskManager.getEpicViewPage(null, 10).items().isEmpty(), "Страница пустого списка не пуста");
+        assertThrows(IllegalArgumentException.class, () -> taskManager.getTaskViewPage("not a cursor", 3), "Принят некорректный курсор");
+        assertThrows(IllegalArgumentException.class, () -> taskManager.getTaskViewPage(null, 0), "Принят пустой размер страницы");
+    }
+
+    @Test
+    void testVersions_ShouldGrowOnChangesOfAffectedTypesOnly() {
+        long initialVersion = taskManager.getVersion();
+        taskManager.addEpic(epic);
+        long epicVersion = taskManager.getVersion(TaskType.EPIC);
+        long taskVersion = taskManager.getVersion(TaskType.TASK);
+
+        assertTrue(taskManager.getVersion() > initialVersion, "Общая версия не изменилась после добавления");
+
+        int taskId = taskManager.addTask(task);
+
+        assertTrue(taskManager.getVersion(TaskType.TASK) > taskVersion, "Версия задач не изменилась");
+        assertEquals(epicVersion, taskManager.getVersion(TaskType.EPIC), "Добавление задачи изменило версию эпиков");
+
+        taskVersion = taskManager.getVersion(TaskType.TASK);
+        taskManager.getTask(taskId);
+        taskManager.getTaskViews();
+
+        assertEquals(taskVersion, taskManager.getVersion(TaskType.TASK), "Чтение изменило версию");
+
+        long subtaskVersion = taskManager.getVersion(TaskType.SUBTASK);
+        int subtaskId = taskManager.addSubtask(subtask1);
+        long subtaskVersionAfterAdd = taskManager.getVersion(TaskType.SUBTASK);
+
+        assertTrue(subtaskVersionAfterAdd > subtaskVersion, "Версия подзадач не изменилась");
+        assertTrue(taskManager.getVersion(TaskType.EPIC) > epicVersion, "Версия эпика не изменилась после добавления подзадачи");
+
+        taskManager.removeSubtask(subtaskId);
+
+        assertTrue(taskManager.getVersion(TaskType.SUBTASK) > subtaskVersionAfterAdd, "Удаление подзадачи не изменило версию");
+        assertTrue(taskManager.getSubtaskViews().isEmpty(), "Удаленная подзадача осталась в списке представлений");
+
+        epicVersion = taskManager.getVersion(TaskType.EPIC);
+        subtaskVersion = taskManager.getVersion(TaskType.SUBTASK);
+        taskManager.removeTask(taskId);
+
+        assertEquals(epicVersion, taskManager.getVersion(TaskType.EPIC), "Удаление задачи изменило версию эпиков");
+        assertEquals(subtaskVersion, taskManager.getVersion(TaskType.SUBTASK), "Удаление задачи изменило версию подзадач");
+
+        taskVersion = taskManager.getVersion(TaskType.TASK);
+        taskManager.clearSubtasks();
+
+        assertEquals(taskVersion, taskManager.getVersion(TaskType.TASK), "Очистка подзадач изменила версию задач");
+    }
 }
@@ -7,8 +7,7 @@ import org.junit.jupiter.api.Test;
 import java.time.Duration;
 import java.time.LocalDateTime;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 class EpicTest {
     private static Epic epic1;
@@ -75,4 +74,67 @@ class EpicTest {
         assertEquals(2, epic1.getSubtasksId().size());
     }
 
-}
\ No newline at end of file
+    @Test
+    void TestCalculateStatus_ShouldCountSubtasksByStatus() {
+        subtask1.setId(2);
+        subtask2.setId(3);
+
+        assertEquals(TaskStatus.NEW, epic1.calculateStatus(), "Не верный статус эпика без подзадач");
+
+        epic1.addOrUpdateSubtask(subtask1);
+        epic1.addOrUpdateSubtask(subtask2);
+
+        assertEquals(TaskStatus.NEW, epic1.calculateStatus(), "Не верный статус эпика с NEW подзадачами");
+
+        subtask1.setStatus(TaskStatus.DONE);
+        epic1.addOrUpdateSubtask(subtask1);
+
+        assertEquals(1, epic1.getSubtasksCount(TaskStatus.NEW), "Не верное количество NEW подзадач");
+        assertEquals(1, epic1.getSubtasksCount(TaskStatus.DONE), "Не верное количество DONE подзадач");
+        assertEquals(TaskStatus.IN_PROGRESS, epic1.calculateStatus(), "Не верный статус эпика с NEW, DONE подзадачами");
+
+        epic1.removeSubtask(subtask2);
+
+        assertEquals(0, epic1.getSubtasksCount(TaskStatus.NEW), "Удаленная подзадача осталась в счетчике");
+        assertEquals(TaskStatus.DONE, epic1.calculateStatus(), "Не верный статус эпика с DONE подзадачами");
+
+        epic1.clearSubtasks();
+
+        assertEquals(0, epic1.getSubtasksCount(TaskStatus.DONE), "Счетчики не очищены");
+        assertEquals(TaskStatus.NEW, epic1.calculateStatus(), "Не верный статус эпика после очистки подзадач");
+    }
+
+
+    @Test
+    void TestCalculateTimeAndDuration_ShouldFollowSubtaskChanges() {
+        subtask1.setId(2);
+        subtask2.setId(3);
+
+        epic1.addOrUpdateSubtask(subtask1);
+        epic1.addOrUpdateSubtask(subtask2);
+
+        assertEquals(subtask1.getStartTime(), epic1.calculateStartTime(), "Не верно рассчитано StartTime");
+        assertEquals(subtask2.getEndTime(), epic1.calculateEndTime(), "Не верно рассчитано EndTime");
+        assertEquals(subtask1.getDuration().plus(subtask2.getDuration()), epic1.calculateDuration(),
+                "Не верно рассчитана Duration");
+
+        LocalDateTime previousEndTime = subtask2.getEndTime();
+        subtask2.setStartTime(startTime.plusHours(5));
+        epic1.addOrUpdateSubtask(subtask2);
+
+        assertNotEquals(previousEndTime, epic1.calculateEndTime(), "Осталось старое EndTime подзадачи");
+        assertEquals(subtask2.getEndTime(), epic1.calculateEndTime(), "EndTime не пересчитано после обновления");
+
+        subtask1.setStartTime(null);
+        epic1.addOrUpdateSubtask(subtask1);
+
+        assertEquals(subtask2.getStartTime(), epic1.calculateStartTime(), "StartTime не пересчитано после обновления");
+        assertEquals(subtask2.getDuration(), epic1.calculateDuration(), "Учтена подзадача без StartTime");
+
+        epic1.removeSubtask(subtask2);
+
+        assertNull(epic1.calculateStartTime(), "StartTime не сброшено после удаления подзадач");
+        assertNull(epic1.calculateEndTime(), "EndTime не сброшено после удаления подзадач");
+        assertEquals(Duration.ZERO, epic1.calculateDuration(), "Duration не сброшена после удаления подзадач");
+    }
+}
@@ -0,0 +1,56 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskViewTest {
+    private final LocalDateTime startTime = LocalDateTime.of(2024, 1, 1, 10, 0);
+    private final Duration duration = Duration.ofMinutes(30);
+
+    @Test
+    void testOf_ShouldCopyEpicFieldsAndSortSubtasks() {
+        Epic epic = new Epic("Epic", "Description Epic");
+        epic.setId(1);
+        epic.setSubtasks(Set.of(5, 3, 4));
+        epic.setEndTime(startTime.plusHours(1));
+
+        TaskView view = TaskView.of(epic);
+
+        assertEquals(TaskType.EPIC, view.type(), "Тип представления не совпадает");
+        assertEquals(List.of(3, 4, 5), view.subtasksId(), "Id подзадач должны быть отсортированы");
+        assertEquals(startTime.plusHours(1), view.endTime(), "Время окончания эпика не совпадает");
+        assertNull(view.epicId(), "У эпика не должно быть epicId");
+    }
+
+    @Test
+    void testToTask_ShouldRestoreSubtask() {
+        Epic epic = new Epic("Epic", "Description Epic");
+        epic.setId(1);
+        Subtask subtask = new Subtask("Subtask", "Description Subtask", epic, startTime, duration);
+        subtask.setId(2);
+
+        Task restored = TaskView.of(subtask).toTask();
+
+        assertInstanceOf(Subtask.class, restored, "Должна восстанавливаться подзадача");
+        assertEquals(subtask, restored, "Восстановленная подзадача не совпадает с исходной");
+        assertEquals(1, ((Subtask) restored).getEpicId(), "Id эпика не совпадает");
+        assertEquals(startTime.plus(duration), restored.getEndTime(), "Время окончания не совпадает");
+    }
+
+    @Test
+    void testOf_ShouldNotChangeAfterTaskModification() {
+        Task task = new Task("Task", "Description Task", startTime, duration);
+        task.setId(1);
+
+        TaskView view = TaskView.of(task);
+        task.setTitle("New title");
+
+        assertEquals("Task", view.title(), "Представление не должно меняться вместе с задачей");
+    }
+}
@@ -0,0 +1,47 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvReaderTest {
+
+    @Test
+    void testReadRecord_ShouldSplitQuotedAndPlainFields() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("1, TASK ,\"Title, \"\"quoted\"\"\nmultiline\",\r\n\nlastId,5"));
+        List<String> fields = new ArrayList<>();
+
+        assertTrue(reader.readRecord(fields), "Первая запись не прочитана");
+        assertEquals(List.of("1", "TASK", "Title, \"quoted\"\nmultiline", ""), fields, "Поля первой записи не совпадают");
+
+        assertTrue(reader.readRecord(fields), "Пустая строка не прочитана");
+        assertEquals(List.of(""), fields, "Пустая строка должна давать одно пустое поле");
+
+        assertTrue(reader.readRecord(fields), "Последняя запись не прочитана");
+        assertEquals(List.of("lastId", "5"), fields, "Поля последней записи не совпадают");
+
+        assertFalse(reader.readRecord(fields), "Записей больше быть не должно");
+    }
+
+    @Test
+    void testAppendField_ShouldRoundTripThroughReader() throws IOException {
+        List<String> values = List.of("plain", "with,comma", " padded ", "quote\"inside", "line\nbreak", "");
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) sb.append(',');
+            CsvWriter.appendField(sb, values.get(i));
+        }
+
+        List<String> fields = new ArrayList<>();
+        new CsvReader(new StringReader(sb.toString())).readRecord(fields);
+
+        assertEquals(values, fields, "Значения не совпадают после записи и чтения");
+        assertTrue(sb.toString().startsWith("plain,"), "Простые значения не должны заключаться в кавычки");
+    }
+}
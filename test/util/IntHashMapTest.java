@@ -0,0 +1,74 @@
+package util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntHashMapTest {
+    private IntHashMap<String> map;
+
+    @BeforeEach
+    void setUp() {
+        map = new IntHashMap<>();
+    }
+
+    @Test
+    void testPutGetRemove_ShouldWorkLikeHashMap() {
+        Map<Integer, String> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 10_000; i++) {
+            int key = random.nextInt(2_000) - 1_000;
+
+            if (random.nextBoolean()) {
+                assertEquals(expected.put(key, "value" + i), map.put(key, "value" + i), "Не верно возвращено предыдущее значение");
+            } else {
+                assertEquals(expected.remove(key), map.remove(key), "Не верно возвращено удаленное значение");
+            }
+        }
+
+        assertEquals(expected.size(), map.size(), "Не верный размер");
+
+        for (int key = -1_000; key < 1_000; key++) {
+            assertEquals(expected.get(key), map.get(key), "Не верное значение по ключу " + key);
+            assertEquals(expected.containsKey(key), map.containsKey(key), "Не верно определено наличие ключа " + key);
+        }
+
+        assertEquals(new HashSet<>(expected.values()), new HashSet<>(map.values()), "Не верный набор значений");
+    }
+
+    @Test
+    void testValues_ShouldKeepAscendingOrderForSmallIds() {
+        for (int key = 10; key > 0; key--) {
+            map.put(key, "value" + key);
+        }
+
+        map.remove(5);
+
+        List<String> values = new ArrayList<>(map.values());
+
+        assertEquals(9, values.size(), "Не верное количество значений");
+        assertEquals("value1", values.getFirst(), "Нарушен порядок значений");
+        assertEquals("value10", values.getLast(), "Нарушен порядок значений");
+        assertArrayEquals(new int[]{1, 2, 3, 4, 6, 7, 8, 9, 10}, map.keys(), "Нарушен порядок ключей");
+    }
+
+    @Test
+    void testPut_ShouldRejectNullValue() {
+        assertThrows(NullPointerException.class, () -> map.put(1, null), "Добавлено null значение");
+    }
+
+    @Test
+    void testClear_ShouldRemoveAllValues() {
+        map.put(1, "value1");
+        map.put(2, "value2");
+
+        map.clear();
+
+        assertTrue(map.isEmpty(), "Значения не удалены");
+        assertNull(map.get(1), "Значение осталось после очистки");
+    }
+}
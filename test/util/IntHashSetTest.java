@@ -0,0 +1,50 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntHashSetTest {
+
+    @Test
+    void testAddContainsRemove_ShouldWorkLikeHashSet() {
+        Set<Integer> expected = new HashSet<>();
+        IntHashSet set = new IntHashSet();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 10_000; i++) {
+            int value = random.nextInt(2_000) - 1_000;
+
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(value), set.add(value), "Не верный результат добавления");
+            } else {
+                assertEquals(expected.remove(value), set.remove(value), "Не верный результат удаления");
+            }
+        }
+
+        assertEquals(expected, set, "Множества не совпадают");
+        assertEquals(expected.size(), set.toIntArray().length, "Не верный размер массива значений");
+    }
+
+    @Test
+    void testMinValue_ShouldBeStoredLikeOtherValues() {
+        IntHashSet set = new IntHashSet(List.of(Integer.MIN_VALUE, 0, 1));
+
+        assertTrue(set.contains(Integer.MIN_VALUE), "Не найдено значение Integer.MIN_VALUE");
+        assertEquals(3, set.size(), "Не верный размер");
+
+        assertTrue(set.remove(Integer.MIN_VALUE), "Не удалено значение Integer.MIN_VALUE");
+        assertFalse(set.contains(Integer.MIN_VALUE), "Значение Integer.MIN_VALUE осталось в множестве");
+    }
+
+    @Test
+    void testIteratorRemove_ShouldRemoveValue() {
+        IntHashSet set = new IntHashSet(List.of(1, 2, 3));
+
+        set.removeIf(value -> value == 2);
+
+        assertEquals(Set.of(1, 3), set, "Значение не удалено через итератор");
+    }
+}
@@ -0,0 +1,21 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortedIntListTest {
+
+    @Test
+    void testOf_ShouldReadValuesInAscendingOrder() {
+        SortedIntList list = SortedIntList.of(new int[]{5, -1, 3});
+
+        assertEquals(List.of(-1, 3, 5), list, "Значения не упорядочены");
+        assertEquals(List.of(-1, 3, 5).hashCode(), list.hashCode(), "hashCode не совпадает со списком");
+        assertTrue(list.contains(3), "Значение не найдено");
+        assertFalse(list.contains(4), "Найдено отсутствующее значение");
+        assertThrows(UnsupportedOperationException.class, () -> list.add(7), "Список должен быть неизменяемым");
+    }
+}